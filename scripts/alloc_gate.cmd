@@ -0,0 +1,33 @@
+@echo off
+setlocal enabledelayedexpansion
+
+rem Allocation gate: compiles src + test and checks bytes allocated per simulation tick.
+rem Optional arguments: number of ticks, max bytes per tick for the game thread and for other threads
+for %%I in ("%~dp0..") do set "ROOT=%%~fI"
+set "SRC=%ROOT%\src"
+set "TEST=%ROOT%\test"
+set "DATA=%ROOT%\data"
+set "CLASSES=%ROOT%\build\gate-classes"
+
+if exist "%CLASSES%" rmdir /s /q "%CLASSES%"
+mkdir "%CLASSES%"
+
+echo [INFO] Compiling sources and gate...
+set "SOURCES_LIST=%ROOT%\build\gate-sources.txt"
+if exist "%SOURCES_LIST%" del /q "%SOURCES_LIST%"
+dir /b /s "%SRC%\*.java" "%TEST%\*.java" > "%SOURCES_LIST%"
+
+javac -encoding UTF-8 -d "%CLASSES%" @"%SOURCES_LIST%"
+if errorlevel 1 (
+  echo [ERROR] javac failed.
+  set "EXITCODE=1"
+  goto :finish
+)
+
+if exist "%DATA%" xcopy /e /i /y "%DATA%" "%CLASSES%\data" >nul
+
+java -Djava.awt.headless=true -cp "%CLASSES%" AllocationGate %*
+set "EXITCODE=%ERRORLEVEL%"
+
+:finish
+endlocal & exit /b %EXITCODE%
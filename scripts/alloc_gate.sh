@@ -0,0 +1,18 @@
+#!/bin/sh
+# Allocation gate: compiles src + test and checks bytes allocated per simulation tick.
+# Optional arguments: number of ticks, max bytes per tick for the game thread and for other threads
+set -e
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+CLASSES="$ROOT/build/gate-classes"
+
+rm -rf "$CLASSES"
+mkdir -p "$CLASSES"
+
+echo "[INFO] Compiling sources and gate..."
+javac -encoding UTF-8 -d "$CLASSES" "$ROOT"/src/*.java "$ROOT"/test/*.java
+if [ -d "$ROOT/data" ]; then
+  cp -r "$ROOT/data" "$CLASSES/data"
+fi
+
+exec java -Djava.awt.headless=true -cp "$CLASSES" AllocationGate "$@"
@@ -0,0 +1,33 @@
+@echo off
+setlocal enabledelayedexpansion
+
+rem Path cost gate: compiles src + test and compares hierarchical paths with plain A*.
+rem Optional arguments: number of maps, max cost ratio
+for %%I in ("%~dp0..") do set "ROOT=%%~fI"
+set "SRC=%ROOT%\src"
+set "TEST=%ROOT%\test"
+set "DATA=%ROOT%\data"
+set "CLASSES=%ROOT%\build\gate-classes"
+
+if exist "%CLASSES%" rmdir /s /q "%CLASSES%"
+mkdir "%CLASSES%"
+
+echo [INFO] Compiling sources and gate...
+set "SOURCES_LIST=%ROOT%\build\gate-sources.txt"
+if exist "%SOURCES_LIST%" del /q "%SOURCES_LIST%"
+dir /b /s "%SRC%\*.java" "%TEST%\*.java" > "%SOURCES_LIST%"
+
+javac -encoding UTF-8 -d "%CLASSES%" @"%SOURCES_LIST%"
+if errorlevel 1 (
+  echo [ERROR] javac failed.
+  set "EXITCODE=1"
+  goto :finish
+)
+
+if exist "%DATA%" xcopy /e /i /y "%DATA%" "%CLASSES%\data" >nul
+
+java -Djava.awt.headless=true -cp "%CLASSES%" PathCostGate %*
+set "EXITCODE=%ERRORLEVEL%"
+
+:finish
+endlocal & exit /b %EXITCODE%
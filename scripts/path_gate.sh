@@ -0,0 +1,18 @@
+#!/bin/sh
+# Path cost gate: compiles src + test and compares hierarchical paths with plain A*.
+# Optional arguments: number of maps, max cost ratio
+set -e
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+CLASSES="$ROOT/build/gate-classes"
+
+rm -rf "$CLASSES"
+mkdir -p "$CLASSES"
+
+echo "[INFO] Compiling sources and gate..."
+javac -encoding UTF-8 -d "$CLASSES" "$ROOT"/src/*.java "$ROOT"/test/*.java
+if [ -d "$ROOT/data" ]; then
+  cp -r "$ROOT/data" "$CLASSES/data"
+fi
+
+exec java -Djava.awt.headless=true -cp "$CLASSES" PathCostGate "$@"
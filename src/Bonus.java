@@ -13,50 +13,58 @@ public class Bonus {
     }
 
     private Vector2D position;
+    // Позиция на предыдущем шаге симуляции, для интерполяции при отрисовке
+    private final Vector2D previousPosition = new Vector2D();
     private Vector2D velocity;
     private double radius = 8;
     private BonusType type;
-    private Color color;
     private boolean isActive = true;
     private double ttl = -1;
     private double floatOffset = 0;
 
+    private static final BonusType[] TYPES = BonusType.values();
+    private static final Color[] COLORS = new Color[TYPES.length];
+
+    static {
+        for (BonusType type : TYPES) {
+            COLORS[type.ordinal()] = colorOf(type);
+        }
+    }
+
     public Bonus(double x, double y) {
         this.position = new Vector2D(x, y);
+        storePreviousPosition();
         this.type = rollType();
 
+        if (type == BonusType.EXPLOSIVE_SHOTS) {
+            ttl = 4.0;
+        }
+
+        velocity = new Vector2D(
+                (Math.random() - 0.5) * 3,
+                (Math.random() - 0.5) * 3
+        );
+    }
+
+    private static Color colorOf(BonusType type) {
         switch (type) {
             case HEALTH:
-                color = new Color(0, 255, 100);
-                break;
+                return new Color(0, 255, 100);
             case NEW_SOLDIER:
-                color = new Color(255, 200, 0);
-                break;
+                return new Color(255, 200, 0);
             case FIRE_RATE:
-                color = new Color(0, 200, 255);
-                break;
+                return new Color(0, 200, 255);
             case MOVE_SPEED:
-                color = new Color(100, 150, 255);
-                break;
+                return new Color(100, 150, 255);
             case DAMAGE:
-                color = new Color(255, 120, 60);
-                break;
+                return new Color(255, 120, 60);
             case EXPLOSION_RADIUS:
-                color = new Color(255, 80, 80);
-                break;
+                return new Color(255, 80, 80);
             case EXPLOSIVE_SHOTS:
-                color = new Color(255, 255, 200);
-                ttl = 4.0;
-                break;
+                return new Color(255, 255, 200);
             default:
-                color = Color.WHITE;
-                break;
+                return Color.WHITE;
         }
-
-        velocity = new Vector2D(
-                (Math.random() - 0.5) * 3,
-                (Math.random() - 0.5) * 3
-        );
     }
 
     private BonusType rollType() {
@@ -90,41 +98,53 @@ public class Bonus {
         }
     }
 
-    public void draw(Graphics2D g2d, Camera camera) {
+    public void storePreviousPosition() {
+        previousPosition.x = position.x;
+        previousPosition.y = position.y;
+    }
+
+    public void writeTo(RenderSnapshot snapshot) {
         if (!isActive) return;
+        snapshot.bonuses.add(previousPosition.x, previousPosition.y, position.x, position.y,
+                radius, floatOffset, type.ordinal());
+    }
 
+    // Отрисовка по данным снимка; px, py - интерполированная позиция в мире
+    public static void draw(Graphics2D g2d, double px, double py, double radius, int typeIndex, double floatOffset,
+                            double offsetX, double offsetY) {
+        BonusType type = TYPES[typeIndex];
         double pulse = 1.0;
         if (type == BonusType.EXPLOSIVE_SHOTS) {
             pulse = 1.0 + 0.2 * Math.sin(floatOffset * 4.0);
         }
 
         Ellipse2D.Double circle = new Ellipse2D.Double(
-                position.x - radius * pulse - camera.getOffsetX(),
-                position.y - radius * pulse - camera.getOffsetY(),
+                px - radius * pulse - offsetX,
+                py - radius * pulse - offsetY,
                 radius * 2 * pulse,
                 radius * 2 * pulse
         );
 
-        g2d.setColor(color);
+        g2d.setColor(COLORS[typeIndex]);
         g2d.fill(circle);
 
         g2d.setColor(Color.WHITE);
         g2d.fill(new Ellipse2D.Double(
-                position.x - radius / 2 - camera.getOffsetX(),
-                position.y - radius / 2 - camera.getOffsetY(),
+                px - radius / 2 - offsetX,
+                py - radius / 2 - offsetY,
                 radius,
                 radius
         ));
 
         g2d.setColor(Color.BLACK);
         g2d.setFont(new Font("Arial", Font.BOLD, 10));
-        g2d.drawString(getSymbol(),
-                (int) (position.x - 4 - camera.getOffsetX()),
-                (int) (position.y + 4 - camera.getOffsetY())
+        g2d.drawString(symbolOf(type),
+                (int) (px - 4 - offsetX),
+                (int) (py + 4 - offsetY)
         );
     }
 
-    private String getSymbol() {
+    private static String symbolOf(BonusType type) {
         switch (type) {
             case HEALTH:
                 return "+";
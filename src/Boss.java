@@ -1,6 +1,7 @@
 public interface Boss {
     void update(double deltaTime, Vector2D playerPos, GameManager game);
-    void draw(java.awt.Graphics2D g2d, Camera camera);
+    void storePreviousPosition();
+    void writeTo(RenderSnapshot snapshot);
     boolean isAlive();
     Vector2D getPosition();
     double getRadius();
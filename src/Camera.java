@@ -5,6 +5,9 @@ public class Camera {
     private double targetOffsetY = 0;
     private double shakeIntensity = 0;
     private double shakeDuration = 0;
+    // Смещение на предыдущем шаге симуляции, для интерполяции при отрисовке
+    private double previousOffsetX = 0;
+    private double previousOffsetY = 0;
 
     public void update(Vector2D targetPosition, int screenWidth, int screenHeight) {
         // Плавное следование за целью
@@ -29,6 +32,11 @@ public class Camera {
         this.shakeDuration = duration;
     }
 
+    public void storePreviousOffset() {
+        previousOffsetX = offsetX;
+        previousOffsetY = offsetY;
+    }
+
     public double getOffsetX() {
         return offsetX;
     }
@@ -36,4 +44,12 @@ public class Camera {
     public double getOffsetY() {
         return offsetY;
     }
+
+    public double getPreviousOffsetX() {
+        return previousOffsetX;
+    }
+
+    public double getPreviousOffsetY() {
+        return previousOffsetY;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+// Узкая фаза "круг против кругов" по упакованным массивам координат и радиусов.
+// Первый проход - чистая арифметика без ветвлений, такой цикл JIT разворачивает в SIMD;
+// второй проход только собирает индексы попаданий
+public class CircleKernel {
+    // Индексы ids[k] для k из [from, to), у которых круг (xs[k], ys[k], rs[k]) пересекается с (x, y, radius).
+    // slack - рабочий массив не короче to
+    public static void collect(double[] xs, double[] ys, double[] rs, int[] ids, int from, int to,
+                               double x, double y, double radius, double[] slack, IntList out) {
+        for (int k = from; k < to; k++) {
+            double dx = xs[k] - x;
+            double dy = ys[k] - y;
+            double limit = rs[k] + radius;
+            slack[k] = limit * limit - (dx * dx + dy * dy);
+        }
+        for (int k = from; k < to; k++) {
+            if (slack[k] >= 0) {
+                out.add(ids[k]);
+            }
+        }
+    }
+}
@@ -0,0 +1,559 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Иерархический граф (HPA*) над Grid: кластеры фиксированного размера, входы на их границах
+// и закэшированные пути между входами внутри кластера
+public class ClusterGraph {
+    private static final int DEFAULT_CLUSTER_SIZE = 10;
+    private static final int MAX_NEIGHBORS = 64;
+
+    private final Grid grid;
+    private final int rows, cols;
+    private final int clusterSize;
+    private final int clusterRows, clusterCols;
+    private final Cluster[] clusters;
+    private final boolean[] wallsDirty;
+    private final boolean[] entrancesDirty;
+    private boolean anyDirty = true;
+
+    // Рабочие массивы поиска по абстрактному графу (индексируются ячейками сетки)
+    private int generation = 0;
+    private final int[] stamp;
+    private final float[] gCost;
+    private final float[] fCost;
+    private final int[] parent;
+    private final boolean[] closed;
+    private final int[] heap;
+    private final int[] heapIndex;
+    private int heapSize;
+
+    // Временные связи старта и цели с входами их кластеров
+    private int queryStart, queryTarget;
+    private int[] startLinks = new int[0];
+    private int[][] startPaths = new int[0][];
+    private int[] targetLinks = new int[0];
+    private int[][] targetPaths = new int[0][];
+    private int[] directPath;
+
+    private final int[] neighborCells = new int[MAX_NEIGHBORS];
+    private final float[] neighborCosts = new float[MAX_NEIGHBORS];
+
+    public ClusterGraph(Grid grid) {
+        this(grid, DEFAULT_CLUSTER_SIZE);
+    }
+
+    public ClusterGraph(Grid grid, int clusterSize) {
+        this.grid = grid;
+        this.rows = grid.getRows();
+        this.cols = grid.getCols();
+        this.clusterSize = clusterSize;
+        this.clusterRows = (rows + clusterSize - 1) / clusterSize;
+        this.clusterCols = (cols + clusterSize - 1) / clusterSize;
+
+        int count = clusterRows * clusterCols;
+        clusters = new Cluster[count];
+        wallsDirty = new boolean[count];
+        entrancesDirty = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            clusters[i] = new Cluster(i / clusterCols, i % clusterCols);
+            wallsDirty[i] = true;
+            entrancesDirty[i] = true;
+        }
+
+        int cells = rows * cols;
+        stamp = new int[cells];
+        gCost = new float[cells];
+        fCost = new float[cells];
+        parent = new int[cells];
+        closed = new boolean[cells];
+        heap = new int[cells];
+        heapIndex = new int[cells];
+    }
+
+    // Вызывается при изменении проходимости ячеек в прямоугольнике
+    public void markDirty(int minRow, int minCol, int maxRow, int maxCol) {
+        int minCr = Math.max(0, minRow / clusterSize);
+        int maxCr = Math.min(clusterRows - 1, maxRow / clusterSize);
+        int minCc = Math.max(0, minCol / clusterSize);
+        int maxCc = Math.min(clusterCols - 1, maxCol / clusterSize);
+        for (int cr = minCr; cr <= maxCr; cr++) {
+            for (int cc = minCc; cc <= maxCc; cc++) {
+                int id = cr * clusterCols + cc;
+                wallsDirty[id] = true;
+                entrancesDirty[id] = true;
+                // Входы на общих границах меняются и у соседей
+                if (cr > 0) entrancesDirty[id - clusterCols] = true;
+                if (cr < clusterRows - 1) entrancesDirty[id + clusterCols] = true;
+                if (cc > 0) entrancesDirty[id - 1] = true;
+                if (cc < clusterCols - 1) entrancesDirty[id + 1] = true;
+                anyDirty = true;
+            }
+        }
+    }
+
+    // Короткие запросы (даже через границу кластера) дешевле и точнее решить обычным A*:
+    // абстрактный граф ведёт путь через входы и на малых расстояниях даёт крюк
+    public boolean isLongQuery(GridCell start, GridCell target) {
+        int dr = Math.abs(start.row - target.row);
+        int dc = Math.abs(start.col - target.col);
+        int diagonal = Math.min(dr, dc);
+        double distance = diagonal * 1.41421356 + (Math.max(dr, dc) - diagonal);
+        return distance >= 2 * clusterSize;
+    }
+
+    // Путь без стартовой ячейки; null если абстрактный граф пути не нашёл
+    public List<GridCell> findPath(GridCell start, GridCell target) {
+        refresh();
+
+        queryStart = start.row * cols + start.col;
+        queryTarget = target.row * cols + target.col;
+        if (queryStart == queryTarget) {
+            return new ArrayList<>();
+        }
+
+        Cluster startCluster = clusterOf(queryStart);
+        Cluster targetCluster = clusterOf(queryTarget);
+        directPath = null;
+        if (startCluster == targetCluster) {
+            directPath = findLocalPath(startCluster, queryStart, queryTarget);
+        }
+        linkToCluster(startCluster, queryStart, true);
+        linkToCluster(targetCluster, queryTarget, false);
+
+        if (!searchAbstract()) {
+            return null;
+        }
+        return refinePath();
+    }
+
+    private void refresh() {
+        if (!anyDirty) return;
+        for (int id = 0; id < clusters.length; id++) {
+            if (!entrancesDirty[id] && !wallsDirty[id]) continue;
+            Cluster cluster = clusters[id];
+            boolean entrancesChanged = cluster.rebuildEntrances();
+            if (wallsDirty[id] || entrancesChanged) {
+                cluster.rebuildPaths();
+            }
+            wallsDirty[id] = false;
+            entrancesDirty[id] = false;
+        }
+        anyDirty = false;
+    }
+
+    private Cluster clusterOf(int cell) {
+        int cr = (cell / cols) / clusterSize;
+        int cc = (cell % cols) / clusterSize;
+        return clusters[cr * clusterCols + cc];
+    }
+
+    private int[] findLocalPath(Cluster cluster, int from, int to) {
+        return Pathfinder.findIndexPath(grid, from, to,
+                cluster.minRow, cluster.minCol, cluster.maxRow, cluster.maxCol);
+    }
+
+    private void linkToCluster(Cluster cluster, int cell, boolean isStart) {
+        int count = cluster.entrances.length;
+        int[] links = new int[count];
+        int[][] paths = new int[count][];
+        for (int i = 0; i < count; i++) {
+            int entrance = cluster.entrances[i];
+            links[i] = entrance;
+            if (entrance == cell) {
+                paths[i] = new int[0];
+            } else if (isStart) {
+                paths[i] = findLocalPath(cluster, cell, entrance);
+            } else {
+                paths[i] = findLocalPath(cluster, entrance, cell);
+            }
+        }
+        if (isStart) {
+            startLinks = links;
+            startPaths = paths;
+        } else {
+            targetLinks = links;
+            targetPaths = paths;
+        }
+    }
+
+    private boolean searchAbstract() {
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            generation = 1;
+        }
+        heapSize = 0;
+
+        touch(queryStart);
+        gCost[queryStart] = 0;
+        fCost[queryStart] = heuristic(queryStart);
+        push(queryStart);
+
+        while (heapSize > 0) {
+            int current = pop();
+            if (current == queryTarget) {
+                return true;
+            }
+            closed[current] = true;
+
+            int count = collectNeighbors(current);
+            for (int i = 0; i < count; i++) {
+                int neighbor = neighborCells[i];
+                float newCost = gCost[current] + neighborCosts[i];
+                if (stamp[neighbor] != generation) {
+                    touch(neighbor);
+                } else if (closed[neighbor] || newCost >= gCost[neighbor]) {
+                    continue;
+                }
+                gCost[neighbor] = newCost;
+                fCost[neighbor] = newCost + heuristic(neighbor);
+                parent[neighbor] = current;
+                if (heapIndex[neighbor] < 0) {
+                    push(neighbor);
+                } else {
+                    siftUp(heapIndex[neighbor]);
+                }
+            }
+        }
+        return false;
+    }
+
+    private int collectNeighbors(int node) {
+        int count = 0;
+        if (node == queryStart) {
+            for (int i = 0; i < startLinks.length; i++) {
+                if (startPaths[i] == null) continue;
+                neighborCells[count] = startLinks[i];
+                neighborCosts[count] = pathCost(queryStart, startPaths[i]);
+                count++;
+            }
+            if (directPath != null) {
+                neighborCells[count] = queryTarget;
+                neighborCosts[count] = pathCost(queryStart, directPath);
+                count++;
+            }
+        }
+
+        Cluster cluster = clusterOf(node);
+        int local = cluster.localIndex(node);
+        if (local >= 0) {
+            int n = cluster.entrances.length;
+            for (int j = 0; j < n && count < MAX_NEIGHBORS; j++) {
+                float cost = cluster.costs[local * n + j];
+                if (j == local || cost == Float.POSITIVE_INFINITY) continue;
+                neighborCells[count] = cluster.entrances[j];
+                neighborCosts[count] = cost;
+                count++;
+            }
+            for (int p = 0; p < 2 && count < MAX_NEIGHBORS; p++) {
+                int partner = p == 0 ? cluster.partnersA[local] : cluster.partnersB[local];
+                if (partner < 0) continue;
+                neighborCells[count] = partner;
+                neighborCosts[count] = 1.0f;
+                count++;
+            }
+        }
+        for (int i = 0; i < targetLinks.length && count < MAX_NEIGHBORS; i++) {
+            if (targetLinks[i] == node && targetPaths[i] != null) {
+                neighborCells[count] = queryTarget;
+                neighborCosts[count] = pathCost(node, targetPaths[i]);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private List<GridCell> refinePath() {
+        int length = 0;
+        for (int node = queryTarget; node != queryStart; node = parent[node]) {
+            length++;
+        }
+        int[] nodes = new int[length + 1];
+        int node = queryTarget;
+        for (int i = length; i > 0; i--) {
+            nodes[i] = node;
+            node = parent[node];
+        }
+        nodes[0] = queryStart;
+
+        // Ячейки пути вместе со стартовой
+        int cellCount = 1;
+        int[][] segments = new int[length][];
+        for (int i = 0; i + 1 < nodes.length; i++) {
+            segments[i] = segmentBetween(nodes[i], nodes[i + 1]);
+            cellCount += segments[i].length;
+        }
+        int[] cells = new int[cellCount];
+        cells[0] = queryStart;
+        int position = 1;
+        for (int[] segment : segments) {
+            System.arraycopy(segment, 0, cells, position, segment.length);
+            position += segment.length;
+        }
+
+        List<GridCell> path = new ArrayList<>();
+        smooth(cells, path);
+        return path;
+    }
+
+    // Склеенные сегменты проходят через середины входов и дают крюк у границ кластеров.
+    // От опорной ячейки ищем самую дальнюю ячейку пути в прямой видимости и заменяем участок
+    // до неё на A* в их ограничивающем прямоугольнике, если он дешевле
+    private void smooth(int[] cells, List<GridCell> out) {
+        int anchor = 0;
+        while (anchor < cells.length - 1) {
+            int ar = cells[anchor] / cols;
+            int ac = cells[anchor] % cols;
+            int next = anchor + 1;
+            while (next + 1 < cells.length
+                    && grid.hasLineOfSight(ar, ac, cells[next + 1] / cols, cells[next + 1] % cols)) {
+                next++;
+            }
+
+            int[] shortcut = null;
+            if (next > anchor + 1) {
+                int nr = cells[next] / cols;
+                int nc = cells[next] % cols;
+                shortcut = Pathfinder.findIndexPath(grid, cells[anchor], cells[next],
+                        Math.min(ar, nr), Math.min(ac, nc), Math.max(ar, nr), Math.max(ac, nc));
+                if (shortcut != null && pathCost(cells[anchor], shortcut) >= sectionCost(cells, anchor, next)) {
+                    shortcut = null;
+                }
+            }
+
+            if (shortcut != null) {
+                for (int cell : shortcut) {
+                    out.add(grid.getCellAtGridPos(cell / cols, cell % cols));
+                }
+            } else {
+                for (int i = anchor + 1; i <= next; i++) {
+                    out.add(grid.getCellAtGridPos(cells[i] / cols, cells[i] % cols));
+                }
+            }
+            anchor = next;
+        }
+    }
+
+    private float sectionCost(int[] cells, int from, int to) {
+        float cost = 0;
+        for (int i = from; i < to; i++) {
+            cost += Pathfinder.stepCost(cells[i], cells[i + 1], cols);
+        }
+        return cost;
+    }
+
+    private int[] segmentBetween(int from, int to) {
+        if (from == queryStart) {
+            if (to == queryTarget && directPath != null) {
+                return directPath;
+            }
+            for (int i = 0; i < startLinks.length; i++) {
+                if (startLinks[i] == to) return startPaths[i];
+            }
+        }
+        if (to == queryTarget) {
+            for (int i = 0; i < targetLinks.length; i++) {
+                if (targetLinks[i] == from && targetPaths[i] != null) return targetPaths[i];
+            }
+        }
+        Cluster cluster = clusterOf(from);
+        if (cluster == clusterOf(to)) {
+            int n = cluster.entrances.length;
+            int[] cached = cluster.paths[cluster.localIndex(from) * n + cluster.localIndex(to)];
+            if (cached != null) return cached;
+        }
+        return new int[] {to};
+    }
+
+    private float pathCost(int from, int[] path) {
+        float cost = 0;
+        int previous = from;
+        for (int cell : path) {
+            cost += Pathfinder.stepCost(previous, cell, cols);
+            previous = cell;
+        }
+        return cost;
+    }
+
+    private float heuristic(int cell) {
+        int dr = Math.abs(cell / cols - queryTarget / cols);
+        int dc = Math.abs(cell % cols - queryTarget % cols);
+        int diagonal = Math.min(dr, dc);
+        return diagonal * 1.41421356f + (Math.max(dr, dc) - diagonal);
+    }
+
+    private void touch(int cell) {
+        stamp[cell] = generation;
+        closed[cell] = false;
+        heapIndex[cell] = -1;
+        parent[cell] = -1;
+    }
+
+    private void push(int cell) {
+        heap[heapSize] = cell;
+        heapIndex[cell] = heapSize;
+        heapSize++;
+        siftUp(heapSize - 1);
+    }
+
+    private int pop() {
+        int top = heap[0];
+        heapIndex[top] = -1;
+        heapSize--;
+        if (heapSize > 0) {
+            int last = heap[heapSize];
+            heap[0] = last;
+            heapIndex[last] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    private void siftUp(int pos) {
+        int cell = heap[pos];
+        float key = fCost[cell];
+        while (pos > 0) {
+            int parentPos = (pos - 1) >> 1;
+            int parentCell = heap[parentPos];
+            if (fCost[parentCell] <= key) break;
+            heap[pos] = parentCell;
+            heapIndex[parentCell] = pos;
+            pos = parentPos;
+        }
+        heap[pos] = cell;
+        heapIndex[cell] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int cell = heap[pos];
+        float key = fCost[cell];
+        int half = heapSize >> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            int right = child + 1;
+            if (right < heapSize && fCost[heap[right]] < fCost[heap[child]]) {
+                child = right;
+            }
+            if (key <= fCost[heap[child]]) break;
+            heap[pos] = heap[child];
+            heapIndex[heap[pos]] = pos;
+            pos = child;
+        }
+        heap[pos] = cell;
+        heapIndex[cell] = pos;
+    }
+
+    private class Cluster {
+        final int minRow, minCol, maxRow, maxCol;
+        int[] entrances = new int[0];
+        int[] partnersA = new int[0];
+        int[] partnersB = new int[0];
+        float[] costs = new float[0];
+        int[][] paths = new int[0][];
+
+        Cluster(int clusterRow, int clusterCol) {
+            minRow = clusterRow * clusterSize;
+            minCol = clusterCol * clusterSize;
+            maxRow = Math.min(rows, minRow + clusterSize) - 1;
+            maxCol = Math.min(cols, minCol + clusterSize) - 1;
+        }
+
+        int localIndex(int cell) {
+            for (int i = 0; i < entrances.length; i++) {
+                if (entrances[i] == cell) return i;
+            }
+            return -1;
+        }
+
+        // Входы ищутся на всех четырёх границах; возвращает true, если набор входов изменился
+        boolean rebuildEntrances() {
+            List<int[]> found = new ArrayList<>();
+            if (minRow > 0) scanBorder(found, minRow, minCol, 0, 1, -1, 0, maxCol - minCol + 1);
+            if (maxRow < rows - 1) scanBorder(found, maxRow, minCol, 0, 1, 1, 0, maxCol - minCol + 1);
+            if (minCol > 0) scanBorder(found, minRow, minCol, 1, 0, 0, -1, maxRow - minRow + 1);
+            if (maxCol < cols - 1) scanBorder(found, minRow, maxCol, 1, 0, 0, 1, maxRow - minRow + 1);
+
+            List<Integer> cells = new ArrayList<>();
+            List<Integer> first = new ArrayList<>();
+            List<Integer> second = new ArrayList<>();
+            for (int[] pair : found) {
+                int existing = cells.indexOf(pair[0]);
+                if (existing < 0) {
+                    cells.add(pair[0]);
+                    first.add(pair[1]);
+                    second.add(-1);
+                } else {
+                    second.set(existing, pair[1]);
+                }
+            }
+
+            int[] newEntrances = new int[cells.size()];
+            int[] newPartnersA = new int[cells.size()];
+            int[] newPartnersB = new int[cells.size()];
+            for (int i = 0; i < newEntrances.length; i++) {
+                newEntrances[i] = cells.get(i);
+                newPartnersA[i] = first.get(i);
+                newPartnersB[i] = second.get(i);
+            }
+            boolean changed = !Arrays.equals(newEntrances, entrances);
+            entrances = newEntrances;
+            partnersA = newPartnersA;
+            partnersB = newPartnersB;
+            return changed;
+        }
+
+        // Для каждого непрерывного отрезка проходимых пар ячеек по обе стороны границы берётся средняя пара
+        private void scanBorder(List<int[]> out, int startRow, int startCol, int stepRow, int stepCol,
+                                int crossRow, int crossCol, int length) {
+            int runStart = -1;
+            for (int i = 0; i <= length; i++) {
+                boolean open = false;
+                if (i < length) {
+                    int r = startRow + i * stepRow;
+                    int c = startCol + i * stepCol;
+                    open = grid.isWalkable(r, c) && grid.isWalkable(r + crossRow, c + crossCol);
+                }
+                if (open && runStart < 0) {
+                    runStart = i;
+                } else if (!open && runStart >= 0) {
+                    int mid = (runStart + i - 1) / 2;
+                    int r = startRow + mid * stepRow;
+                    int c = startCol + mid * stepCol;
+                    out.add(new int[] {r * cols + c, (r + crossRow) * cols + (c + crossCol)});
+                    runStart = -1;
+                }
+            }
+        }
+
+        void rebuildPaths() {
+            int n = entrances.length;
+            costs = new float[n * n];
+            paths = new int[n * n][];
+            Arrays.fill(costs, Float.POSITIVE_INFINITY);
+            for (int i = 0; i < n; i++) {
+                costs[i * n + i] = 0;
+                for (int j = i + 1; j < n; j++) {
+                    int[] path = findLocalPath(this, entrances[i], entrances[j]);
+                    if (path == null) continue;
+                    float cost = pathCost(entrances[i], path);
+                    costs[i * n + j] = cost;
+                    costs[j * n + i] = cost;
+                    paths[i * n + j] = path;
+                    paths[j * n + i] = reverse(entrances[i], path);
+                }
+            }
+        }
+
+        private int[] reverse(int from, int[] path) {
+            int[] reversed = new int[path.length];
+            for (int k = 0; k < path.length - 1; k++) {
+                reversed[k] = path[path.length - 2 - k];
+            }
+            if (path.length > 0) {
+                reversed[path.length - 1] = from;
+            }
+            return reversed;
+        }
+    }
+}
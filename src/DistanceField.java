@@ -0,0 +1,332 @@
+import java.util.Arrays;
+
+public class DistanceField {
+    private static final float INFINITY = Float.POSITIVE_INFINITY;
+    private static final float STRAIGHT_COST = 1.0f;
+    private static final float DIAGONAL_COST = (float) Math.sqrt(2);
+
+    private final int rows, cols;
+    // Массивы с рамкой из непроходимых ячеек: соседей можно брать по смещению без проверки границ
+    private final int stride;
+    private final boolean[] walkable;
+    // LPA*: distance - текущее значение (g), lookahead - оценка по соседям (rhs)
+    private final float[] distance;
+    private final float[] lookahead;
+    private final float[] key;
+    private final int[] neighborOffsets;
+    private final float[] neighborCosts;
+    private static final int[] neighborDr = {-1, -1, -1, 0, 0, 1, 1, 1};
+    private static final int[] neighborDc = {-1, 0, 1, -1, 1, -1, 0, 1};
+
+    // Индексная двоичная куча: heap хранит индексы ячеек, heapIndex - позицию ячейки в куче (-1 если нет)
+    private final int[] heap;
+    private final int[] heapIndex;
+    private int heapSize;
+
+    private int target = -1;
+    private boolean ready = false;
+    private boolean changed = false;
+
+    public DistanceField(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.stride = cols + 2;
+
+        int size = (rows + 2) * stride;
+        walkable = new boolean[size];
+        distance = new float[size];
+        lookahead = new float[size];
+        key = new float[size];
+        heap = new int[size];
+        heapIndex = new int[size];
+
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                walkable[index(r, c)] = true;
+            }
+        }
+        Arrays.fill(distance, INFINITY);
+        Arrays.fill(lookahead, INFINITY);
+        Arrays.fill(heapIndex, -1);
+
+        neighborOffsets = new int[] {
+                -stride - 1, -stride, -stride + 1,
+                -1, 1,
+                stride - 1, stride, stride + 1
+        };
+        neighborCosts = new float[] {
+                DIAGONAL_COST, STRAIGHT_COST, DIAGONAL_COST,
+                STRAIGHT_COST, STRAIGHT_COST,
+                DIAGONAL_COST, STRAIGHT_COST, DIAGONAL_COST
+        };
+    }
+
+    public void setWalkable(int row, int col, boolean value) {
+        if (!contains(row, col)) return;
+        int cell = index(row, col);
+        if (walkable[cell] == value) return;
+        walkable[cell] = value;
+        if (target < 0) return;
+
+        // Поле не пересчитываем: помечаем затронутые ячейки, ремонт произойдёт в update()
+        updateVertex(cell);
+        for (int i = 0; i < neighborOffsets.length; i++) {
+            int neighbor = cell + neighborOffsets[i];
+            if (walkable[neighbor]) {
+                updateVertex(neighbor);
+            }
+        }
+    }
+
+    public boolean update(int targetRow, int targetCol) {
+        if (!contains(targetRow, targetCol) || !walkable[index(targetRow, targetCol)]) {
+            ready = false;
+            return false;
+        }
+        int newTarget = index(targetRow, targetCol);
+
+        if (target < 0 || isFarMove(target, newTarget)) {
+            return compute(targetRow, targetCol);
+        }
+
+        if (newTarget != target) {
+            int oldTarget = target;
+            target = newTarget;
+            updateVertex(newTarget);
+            updateVertex(oldTarget);
+        }
+
+        while (heapSize > 0) {
+            changed = true;
+            int current = pop();
+            if (distance[current] > lookahead[current]) {
+                distance[current] = lookahead[current];
+                for (int i = 0; i < neighborOffsets.length; i++) {
+                    int neighbor = current + neighborOffsets[i];
+                    if (walkable[neighbor]) {
+                        updateVertex(neighbor);
+                    }
+                }
+            } else {
+                distance[current] = INFINITY;
+                updateVertex(current);
+                for (int i = 0; i < neighborOffsets.length; i++) {
+                    int neighbor = current + neighborOffsets[i];
+                    if (walkable[neighbor]) {
+                        updateVertex(neighbor);
+                    }
+                }
+            }
+        }
+
+        ready = true;
+        return true;
+    }
+
+    public boolean compute(int targetRow, int targetCol) {
+        ready = false;
+        if (!contains(targetRow, targetCol) || !walkable[index(targetRow, targetCol)]) {
+            target = -1;
+            return false;
+        }
+        target = index(targetRow, targetCol);
+
+        Arrays.fill(distance, INFINITY);
+        for (int i = 0; i < heapSize; i++) {
+            heapIndex[heap[i]] = -1;
+        }
+        heapSize = 0;
+
+        distance[target] = 0;
+        key[target] = 0;
+        push(target);
+
+        while (heapSize > 0) {
+            int current = pop();
+            float currentDistance = distance[current];
+
+            for (int i = 0; i < neighborOffsets.length; i++) {
+                int neighbor = current + neighborOffsets[i];
+                if (!walkable[neighbor]) continue;
+
+                float newDist = currentDistance + neighborCosts[i];
+                if (newDist < distance[neighbor]) {
+                    distance[neighbor] = newDist;
+                    key[neighbor] = newDist;
+                    if (heapIndex[neighbor] < 0) {
+                        push(neighbor);
+                    } else {
+                        siftUp(heapIndex[neighbor]);
+                    }
+                }
+            }
+        }
+        System.arraycopy(distance, 0, lookahead, 0, distance.length);
+
+        changed = true;
+        ready = true;
+        return true;
+    }
+
+    public double getDistance(int row, int col) {
+        if (!ready || !contains(row, col)) return Double.POSITIVE_INFINITY;
+        return distance[index(row, col)];
+    }
+
+    public void copyDistances(float[] out) {
+        for (int r = 0; r < rows; r++) {
+            System.arraycopy(distance, index(r, 0), out, r * cols, cols);
+        }
+    }
+
+    // Направление к лучшему соседу для каждой ячейки (нулевой вектор для цели, стен и недостижимых ячеек)
+    public void computeFlow(float[] flowX, float[] flowY) {
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int cell = index(r, c);
+                int out = r * cols + c;
+                flowX[out] = 0;
+                flowY[out] = 0;
+                if (!walkable[cell] || cell == target || distance[cell] == INFINITY) continue;
+
+                int best = -1;
+                float bestDistance = distance[cell];
+                for (int i = 0; i < neighborOffsets.length; i++) {
+                    int neighbor = cell + neighborOffsets[i];
+                    if (walkable[neighbor] && distance[neighbor] < bestDistance) {
+                        bestDistance = distance[neighbor];
+                        best = i;
+                    }
+                }
+                if (best < 0) continue;
+
+                float invLength = 1.0f / neighborCosts[best];
+                flowX[out] = neighborDc[best] * invLength;
+                flowY[out] = neighborDr[best] * invLength;
+            }
+        }
+    }
+
+    // Были ли изменения расстояний с прошлого вызова
+    public boolean consumeChanges() {
+        boolean result = changed;
+        changed = false;
+        return result;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private void updateVertex(int cell) {
+        if (cell != target) {
+            float best = INFINITY;
+            if (walkable[cell]) {
+                for (int i = 0; i < neighborOffsets.length; i++) {
+                    int neighbor = cell + neighborOffsets[i];
+                    if (!walkable[neighbor]) continue;
+                    float candidate = distance[neighbor] + neighborCosts[i];
+                    if (candidate < best) {
+                        best = candidate;
+                    }
+                }
+            }
+            lookahead[cell] = best;
+        } else {
+            lookahead[cell] = 0;
+        }
+
+        if (distance[cell] != lookahead[cell]) {
+            key[cell] = Math.min(distance[cell], lookahead[cell]);
+            if (heapIndex[cell] < 0) {
+                push(cell);
+            } else {
+                siftUp(heapIndex[cell]);
+                siftDown(heapIndex[cell]);
+            }
+        } else if (heapIndex[cell] >= 0) {
+            remove(heapIndex[cell]);
+        }
+    }
+
+    private boolean isFarMove(int from, int to) {
+        int dr = Math.abs(from / stride - to / stride);
+        int dc = Math.abs(from % stride - to % stride);
+        return dr > 1 || dc > 1;
+    }
+
+    private boolean contains(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
+    }
+
+    private int index(int row, int col) {
+        return (row + 1) * stride + (col + 1);
+    }
+
+    private void push(int cell) {
+        heap[heapSize] = cell;
+        heapIndex[cell] = heapSize;
+        heapSize++;
+        siftUp(heapSize - 1);
+    }
+
+    private int pop() {
+        int top = heap[0];
+        heapIndex[top] = -1;
+        heapSize--;
+        if (heapSize > 0) {
+            int last = heap[heapSize];
+            heap[0] = last;
+            heapIndex[last] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    private void remove(int pos) {
+        int cell = heap[pos];
+        heapIndex[cell] = -1;
+        heapSize--;
+        if (pos < heapSize) {
+            int last = heap[heapSize];
+            heap[pos] = last;
+            heapIndex[last] = pos;
+            siftUp(pos);
+            siftDown(heapIndex[last]);
+        }
+    }
+
+    private void siftUp(int pos) {
+        int cell = heap[pos];
+        float cellKey = key[cell];
+        while (pos > 0) {
+            int parentPos = (pos - 1) >> 1;
+            int parent = heap[parentPos];
+            if (key[parent] <= cellKey) break;
+            heap[pos] = parent;
+            heapIndex[parent] = pos;
+            pos = parentPos;
+        }
+        heap[pos] = cell;
+        heapIndex[cell] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int cell = heap[pos];
+        float cellKey = key[cell];
+        int half = heapSize >> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            int right = child + 1;
+            if (right < heapSize && key[heap[right]] < key[heap[child]]) {
+                child = right;
+            }
+            if (cellKey <= key[heap[child]]) break;
+            heap[pos] = heap[child];
+            heapIndex[heap[pos]] = pos;
+            pos = child;
+        }
+        heap[pos] = cell;
+        heapIndex[cell] = pos;
+    }
+}
@@ -0,0 +1,144 @@
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class DistanceFieldWorker {
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "DistanceFieldWorker");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final int NO_TARGET = -1;
+
+    private final int rows, cols;
+    // Движок принадлежит фоновому потоку. Снимки - тройной буфер: задний пишет фоновый поток,
+    // передний держит поток симуляции от acquireSnapshot до следующего вызова, средний меняется
+    // с ними местами атомарно. Так снимок, который читают весь тик, никогда не перезаписывается
+    private final DistanceField field;
+    private DistanceSnapshot back;
+    private final AtomicReference<DistanceSnapshot> middle;
+    private DistanceSnapshot front;
+    private long nextVersion = 1;
+    // Последнее опубликованное состояние, чтобы не публиковать одно и то же
+    private boolean publishedReady = false;
+    private boolean published = false;
+
+    // Изменения проходимости от потока симуляции: нужное состояние клетки и кольцо изменённых клеток.
+    // Клетка лежит в кольце не больше одного раза (флаг queued), поэтому кольца размером с сетку хватает
+    private final AtomicIntegerArray walkable;
+    private final AtomicIntegerArray queued;
+    private final int[] changedCells;
+    private final int changedMask;
+    private final AtomicInteger changedHead = new AtomicInteger();
+    private final AtomicInteger changedTail = new AtomicInteger();
+    private final AtomicInteger requestedTarget = new AtomicInteger(NO_TARGET);
+    private final AtomicBoolean pending = new AtomicBoolean(false);
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final Runnable task = this::run;
+
+    public DistanceFieldWorker(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.field = new DistanceField(rows, cols);
+        this.back = new DistanceSnapshot(rows, cols);
+        this.middle = new AtomicReference<>(new DistanceSnapshot(rows, cols));
+        this.front = new DistanceSnapshot(rows, cols);
+
+        this.walkable = new AtomicIntegerArray(rows * cols);
+        this.queued = new AtomicIntegerArray(rows * cols);
+        int capacity = Integer.highestOneBit(Math.max(1, rows * cols - 1)) << 1;
+        this.changedCells = new int[capacity];
+        this.changedMask = capacity - 1;
+    }
+
+    // Только для потока симуляции
+    public void setWalkable(int row, int col, boolean walkable) {
+        int cell = row * cols + col;
+        this.walkable.set(cell, walkable ? 1 : 0);
+        if (queued.compareAndSet(cell, 0, 1)) {
+            int t = changedTail.get();
+            changedCells[t & changedMask] = cell;
+            changedTail.lazySet(t + 1);
+        }
+    }
+
+    public void requestUpdate(int targetRow, int targetCol) {
+        boolean valid = targetRow >= 0 && targetRow < rows && targetCol >= 0 && targetCol < cols;
+        requestedTarget.set(valid ? targetRow * cols + targetCol : NO_TARGET);
+        pending.set(true);
+        schedule();
+    }
+
+    // Только для потока симуляции: забирает самый свежий опубликованный снимок.
+    // Вызывается раз в начале тика, весь тик дальше читается getSnapshot
+    public DistanceSnapshot acquireSnapshot() {
+        if (middle.get().version > front.version) {
+            front = middle.getAndSet(front);
+        }
+        return getSnapshot();
+    }
+
+    // Снимок, взятый последним acquireSnapshot; null - ещё ничего не опубликовано
+    public DistanceSnapshot getSnapshot() {
+        return front.version > 0 ? front : null;
+    }
+
+    private void schedule() {
+        if (running.compareAndSet(false, true)) {
+            EXECUTOR.execute(task);
+        }
+    }
+
+    private void run() {
+        while (true) {
+            while (pending.getAndSet(false)) {
+                recompute();
+            }
+            running.set(false);
+            // Запрос мог прийти между последней проверкой и сбросом флага
+            if (!pending.get() || !running.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    private void recompute() {
+        int h = changedHead.get();
+        int t = changedTail.get();
+        while (h != t) {
+            int cell = changedCells[h & changedMask];
+            h++;
+            // Сначала снимаем флаг, потом читаем состояние: более позднее изменение либо уже видно,
+            // либо заново положит клетку в кольцо
+            queued.set(cell, 0);
+            field.setWalkable(cell / cols, cell % cols, walkable.get(cell) != 0);
+        }
+        changedHead.lazySet(h);
+
+        int target = requestedTarget.get();
+        boolean ready = target != NO_TARGET && field.update(target / cols, target % cols);
+        boolean changed = field.consumeChanges();
+
+        if (published && publishedReady == ready && !changed) {
+            return;
+        }
+
+        if (ready) {
+            field.copyDistances(back.distance);
+            field.computeFlow(back.flowX, back.flowY);
+            back.targetRow = target / cols;
+            back.targetCol = target % cols;
+        } else {
+            back.targetRow = -1;
+            back.targetCol = -1;
+        }
+        back.ready = ready;
+        back.version = nextVersion++;
+        published = true;
+        publishedReady = ready;
+        back = middle.getAndSet(back);
+    }
+}
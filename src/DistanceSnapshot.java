@@ -0,0 +1,56 @@
+public class DistanceSnapshot {
+    private final int rows, cols;
+    final float[] distance;
+    final float[] flowX;
+    final float[] flowY;
+    long version;
+    int targetRow = -1;
+    int targetCol = -1;
+    boolean ready = false;
+
+    DistanceSnapshot(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.distance = new float[rows * cols];
+        this.flowX = new float[rows * cols];
+        this.flowY = new float[rows * cols];
+    }
+
+    public double getDistance(int row, int col) {
+        if (!ready || row < 0 || row >= rows || col < 0 || col >= cols) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return distance[row * cols + col];
+    }
+
+    public boolean hasFlow(int row, int col) {
+        if (!ready || row < 0 || row >= rows || col < 0 || col >= cols) {
+            return false;
+        }
+        int index = row * cols + col;
+        return flowX[index] != 0 || flowY[index] != 0;
+    }
+
+    public float getFlowX(int row, int col) {
+        return flowX[row * cols + col];
+    }
+
+    public float getFlowY(int row, int col) {
+        return flowY[row * cols + col];
+    }
+
+    public boolean isTarget(int row, int col) {
+        return ready && row == targetRow && col == targetCol;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+}
@@ -6,14 +6,16 @@ import java.util.List;
 
 public class Enemy {
     private Vector2D position;
+    // Позиция на предыдущем шаге симуляции, для интерполяции при отрисовке
+    private final Vector2D previousPosition = new Vector2D();
     private Vector2D velocity;
     private double radius = 15;
-    private Color color;
     private int health = 100;
     private int maxHealth = 100;
     private boolean isAlive = true;
     private double speed;
-    private BufferedImage skin;
+    // Индекс в SKINS, -1 - скинов нет
+    private int skin;
 
     private static final String[] SKIN_PATHS = {
             "/data/enemy_1.png",
@@ -21,91 +23,174 @@ public class Enemy {
             "/data/enemy_3.png"
     };
     private static final BufferedImage[] SKINS = loadSkins(SKIN_PATHS);
+    private static final Color COLOR = new Color(200, 50, 50);
 
-    private List<GridCell> currentPath = new ArrayList<>();
-    private double pathUpdateTimer = 0;
-    private static final double PATH_UPDATE_INTERVAL = 0.5;
+    private final Vector2D steering = new Vector2D();
+    private boolean followingFlow = false;
+    // Время с последнего обновления направления; новые враги обслуживаются планировщиком первыми
+    private double steeringAge = Double.POSITIVE_INFINITY;
+    private static final boolean SMOOTH_STEERING = true;
+
+    // Расталкивание соседей, чтобы толпа не схлопывалась в одну точку
+    private final Vector2D separation = new Vector2D();
+    private final Vector2D contactNormal = new Vector2D();
+    private static final double SEPARATION_RADIUS = 36;
+    private static final double SEPARATION_WEIGHT = 2.5;
+
+    private int pendingTicks = 0;
 
     public Enemy(double x, double y, double speed, int maxHealth) {
         this.position = new Vector2D(x, y);
+        storePreviousPosition();
         this.velocity = new Vector2D();
-        this.color = new Color(200, 50, 50);
         this.speed = speed;
         this.maxHealth = maxHealth;
         this.health = maxHealth;
         this.skin = pickSkin();
     }
 
-    public void update(double deltaTime, Vector2D target, Grid grid) {
+    public void update(double deltaTime, Vector2D target, ObstacleField obstacles) {
+        update(deltaTime, target, obstacles, 1);
+    }
+
+    // Обновление сразу за несколько тиков (LOD далёких врагов); перемещение дробится на шаги
+    // не длиннее радиуса, чтобы не проскочить препятствие
+    public void update(double deltaTime, Vector2D target, ObstacleField obstacles, int ticks) {
         if (!isAlive) return;
 
-        pathUpdateTimer += deltaTime;
-        if (pathUpdateTimer >= PATH_UPDATE_INTERVAL) {
-            updatePath(grid);
-            pathUpdateTimer = 0;
+        steeringAge += deltaTime * ticks;
+        int ticksPerStep = getTicksPerStep();
+        while (ticks > 0) {
+            int step = Math.min(ticks, ticksPerStep);
+            if (followingFlow) {
+                moveAlong(steering.x, steering.y, step);
+            } else {
+                moveDirectly(target, step);
+            }
+            obstacles.resolveCircle(position, radius, contactNormal);
+            ticks -= step;
         }
+    }
 
-        if (!currentPath.isEmpty()) {
-            followPath(deltaTime, grid);
-        } else {
-            moveDirectly(deltaTime, target);
+    // Спящий враг: без расталкивания, направление на каждом шаге берётся прямо из поля расстояний
+    public void advanceAlongFlow(Grid grid, DistanceSnapshot snapshot, Vector2D target, int ticks) {
+        if (!isAlive) return;
+
+        separation.x = 0;
+        separation.y = 0;
+        ObstacleField obstacles = grid.getObstacleField();
+        int ticksPerStep = getTicksPerStep();
+        while (ticks > 0) {
+            int step = Math.min(ticks, ticksPerStep);
+            refreshSteering(grid, snapshot);
+            if (followingFlow) {
+                moveAlong(steering.x, steering.y, step);
+            } else {
+                moveDirectly(target, step);
+            }
+            obstacles.resolveCircle(position, radius, contactNormal);
+            ticks -= step;
         }
     }
 
-    private void updatePath(Grid grid) {
-        GridCell start = grid.getCellAtWorldPos(position.x, position.y);
-        if (start == null || !grid.hasDistanceField()) {
-            currentPath.clear();
-            return;
-        }
-        currentPath = grid.buildPathFrom(start, 60);
+    // Копит пропущенные тики; возвращает их число, когда пора обновиться, иначе 0
+    int accumulateTicks(int interval) {
+        pendingTicks++;
+        if (pendingTicks < interval) return 0;
+        int ticks = pendingTicks;
+        pendingTicks = 0;
+        return ticks;
     }
 
-    private void followPath(double deltaTime, Grid grid) {
-        if (currentPath.isEmpty()) return;
+    private int getTicksPerStep() {
+        return Math.max(1, (int) (radius / Math.max(speed, 1e-6)));
+    }
 
-        GridCell targetCell = currentPath.get(0);
-        Vector2D targetPos = new Vector2D(targetCell.worldX, targetCell.worldY);
+    // Вызывается PathScheduler; между вызовами враг идёт по сохранённому направлению
+    public void refreshSteering(Grid grid, DistanceSnapshot snapshot) {
+        followingFlow = grid.sampleFlow(snapshot, position.x, position.y, SMOOTH_STEERING, steering);
+        steeringAge = 0;
+    }
 
-        Vector2D direction = new Vector2D(targetPos.x - position.x, targetPos.y - position.y);
-        double distance = direction.distanceTo(new Vector2D(0, 0));
+    public double getSteeringAge() {
+        return steeringAge;
+    }
 
-        if (distance > 0.1) {
-            direction.normalize();
-            velocity.x = direction.x * speed;
-            velocity.y = direction.y * speed;
+    // Сумма отталкиваний от соседей в радиусе; соседи берутся из хэша, index - место этого врага в нём.
+    // scratch и slack - рабочие буферы вызывающего (свои у каждого потока)
+    public void computeSeparation(SpatialHash neighbors, int index, IntList scratch, double[] slack) {
+        separation.x = 0;
+        separation.y = 0;
+        if (!isAlive) return;
 
-            position.x += velocity.x;
-            position.y += velocity.y;
+        neighbors.queryCircle(position.x, position.y, SEPARATION_RADIUS - radius, scratch, slack);
+        for (int i = 0; i < scratch.size(); i++) {
+            int otherIndex = scratch.get(i);
+            if (otherIndex == index) continue;
+            Enemy other = neighbors.get(otherIndex);
+            if (!other.isAlive) continue;
+
+            double dx = position.x - other.position.x;
+            double dy = position.y - other.position.y;
+            double distance = Math.sqrt(dx * dx + dy * dy);
+            if (distance >= SEPARATION_RADIUS) continue;
+            if (distance < 1e-6) {
+                // Совпавшие позиции разводим в разные стороны по порядку в хэше
+                double angle = (index - otherIndex) * 2.399963;
+                dx = Math.cos(angle);
+                dy = Math.sin(angle);
+                distance = 1;
+            }
+            double strength = 1 - distance / SEPARATION_RADIUS;
+            separation.x += dx / distance * strength;
+            separation.y += dy / distance * strength;
         }
+    }
 
-        if (distance < 5) {
-            currentPath.remove(0);
-        }
+    private void moveAlong(double dirX, double dirY, int ticks) {
+        dirX += separation.x * SEPARATION_WEIGHT;
+        dirY += separation.y * SEPARATION_WEIGHT;
+        double length = Math.sqrt(dirX * dirX + dirY * dirY);
+        if (length < 1e-6) return;
+
+        velocity.x = dirX / length * speed;
+        velocity.y = dirY / length * speed;
+
+        position.x += velocity.x * ticks;
+        position.y += velocity.y * ticks;
     }
 
-    private void moveDirectly(double deltaTime, Vector2D target) {
-        Vector2D direction = new Vector2D(target.x - position.x, target.y - position.y);
-        double distance = direction.distanceTo(new Vector2D(0, 0));
+    private void moveDirectly(Vector2D target, int ticks) {
+        double dx = target.x - position.x;
+        double dy = target.y - position.y;
+        double distance = Math.sqrt(dx * dx + dy * dy);
 
         if (distance > 0.1) {
-            direction.normalize();
-            velocity.x = direction.x * speed;
-            velocity.y = direction.y * speed;
-
-            position.x += velocity.x;
-            position.y += velocity.y;
+            moveAlong(dx / distance, dy / distance, ticks);
         }
     }
 
-    public void draw(Graphics2D g2d, Camera camera, boolean showPath) {
+    public void storePreviousPosition() {
+        previousPosition.x = position.x;
+        previousPosition.y = position.y;
+    }
+
+    public void writeTo(RenderSnapshot snapshot) {
         if (!isAlive) return;
+        double healthRatio = maxHealth > 0 ? (health / (double) maxHealth) : 0;
+        snapshot.addEnemy(previousPosition.x, previousPosition.y, position.x, position.y, radius,
+                healthRatio, skin, followingFlow ? steering.x : 0, followingFlow ? steering.y : 0);
+    }
 
-        double drawX = position.x - radius - camera.getOffsetX();
-        double drawY = position.y - radius - camera.getOffsetY();
+    // Отрисовка по данным снимка; px, py - интерполированная позиция в мире,
+    // steerX, steerY - направление потока для показа путей (0 - не рисовать)
+    public static void draw(Graphics2D g2d, double px, double py, double radius, double healthRatio, int skin,
+                            double steerX, double steerY, boolean showPath, double offsetX, double offsetY) {
+        double drawX = px - radius - offsetX;
+        double drawY = py - radius - offsetY;
 
-        if (skin != null) {
-            g2d.drawImage(skin, (int) drawX, (int) drawY, (int) (radius * 2), (int) (radius * 2), null);
+        if (skin >= 0) {
+            g2d.drawImage(SKINS[skin], (int) drawX, (int) drawY, (int) (radius * 2), (int) (radius * 2), null);
         } else {
             Ellipse2D.Double circle = new Ellipse2D.Double(
                     drawX,
@@ -113,54 +198,49 @@ public class Enemy {
                     radius * 2,
                     radius * 2
             );
-            g2d.setColor(color);
+            g2d.setColor(COLOR);
             g2d.fill(circle);
         }
 
-        double healthRatio = maxHealth > 0 ? (health / (double) maxHealth) : 0;
         g2d.setColor(new Color(
                 (int)(255 * (1 - healthRatio)),
                 (int)(255 * healthRatio),
                 0
         ));
         g2d.fill(new Ellipse2D.Double(
-                position.x - radius * 0.7 * healthRatio - camera.getOffsetX(),
-                position.y - radius * 0.7 * healthRatio - camera.getOffsetY(),
+                px - radius * 0.7 * healthRatio - offsetX,
+                py - radius * 0.7 * healthRatio - offsetY,
                 radius * 1.4 * healthRatio,
                 radius * 1.4 * healthRatio
         ));
 
-        if (skin == null) {
+        if (skin < 0) {
             g2d.setColor(Color.BLACK);
             g2d.fillOval(
-                    (int)(position.x - radius * 0.3 - camera.getOffsetX()),
-                    (int)(position.y - radius * 0.3 - camera.getOffsetY()),
+                    (int)(px - radius * 0.3 - offsetX),
+                    (int)(py - radius * 0.3 - offsetY),
                     (int)(radius * 0.6),
                     (int)(radius * 0.6)
             );
         }
 
-        if (showPath && !currentPath.isEmpty()) {
+        if (showPath && (steerX != 0 || steerY != 0)) {
             g2d.setColor(new Color(0, 255, 0, 100));
             g2d.setStroke(new BasicStroke(2));
 
-            GridCell nextCell = currentPath.get(0);
+            double tipX = px + steerX * radius * 2.5;
+            double tipY = py + steerY * radius * 2.5;
             g2d.drawLine(
-                    (int)(position.x - camera.getOffsetX()),
-                    (int)(position.y - camera.getOffsetY()),
-                    (int)(nextCell.worldX - camera.getOffsetX()),
-                    (int)(nextCell.worldY - camera.getOffsetY())
+                    (int)(px - offsetX),
+                    (int)(py - offsetY),
+                    (int)(tipX - offsetX),
+                    (int)(tipY - offsetY)
+            );
+            g2d.fillOval(
+                    (int)(tipX - 3 - offsetX),
+                    (int)(tipY - 3 - offsetY),
+                    6, 6
             );
-
-            for (int i = 0; i < currentPath.size(); i++) {
-                GridCell cell = currentPath.get(i);
-                g2d.setColor(new Color(0, 255, 0, Math.min(255, 100 + i * 50)));
-                g2d.fillOval(
-                        (int)(cell.worldX - 3 - camera.getOffsetX()),
-                        (int)(cell.worldY - 3 - camera.getOffsetY()),
-                        6, 6
-                );
-            }
         }
     }
 
@@ -201,9 +281,8 @@ public class Enemy {
         return list.toArray(new BufferedImage[0]);
     }
 
-    private static BufferedImage pickSkin() {
-        if (SKINS.length == 0) return null;
-        int idx = (int) Math.floor(Math.random() * SKINS.length);
-        return SKINS[idx];
+    private static int pickSkin() {
+        if (SKINS.length == 0) return -1;
+        return (int) Math.floor(Math.random() * SKINS.length);
     }
 }
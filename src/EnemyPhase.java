@@ -0,0 +1,179 @@
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Фаза врагов за тик: расталкивание, движение и проверка касаний с отрядом.
+// Враги режутся на куски, куски выполняются на ForkJoin-пуле. Кусок пишет только своих врагов
+// и свой буфер касаний; GameManager потом разбирает буферы по порядку кусков, так что итог
+// не зависит от того, какой поток что посчитал. Мало врагов - всё идёт в текущем потоке
+public class EnemyPhase {
+    private static final int CHUNK_SIZE = 128;
+    private static final int PARALLEL_THRESHOLD = 512;
+
+    private static final int PASS_SEPARATION = 0;
+    private static final int PASS_MOVE = 1;
+
+    private final ForkJoinPool pool = ForkJoinPool.commonPool();
+    private final Root root = new Root();
+    private Chunk[] chunks = new Chunk[0];
+    private int chunkCount;
+
+    // Входные данные текущего тика
+    private List<Enemy> enemies;
+    private SpatialHash neighbors;
+    private SimulationLod lod;
+    private Grid grid;
+    private DistanceSnapshot snapshot;
+    private Vector2D target;
+    private List<PlayerSoldier> soldiers;
+    private double deltaTime;
+    private boolean checkContacts;
+
+    // neighbors должен быть построен по enemies в начале тика
+    public void run(List<Enemy> enemies, SpatialHash neighbors, SimulationLod lod, Grid grid,
+                    Vector2D target, List<PlayerSoldier> soldiers, double deltaTime, boolean checkContacts) {
+        this.enemies = enemies;
+        this.neighbors = neighbors;
+        this.lod = lod;
+        this.grid = grid;
+        this.snapshot = grid.getDistanceSnapshot();
+        this.target = target;
+        this.soldiers = soldiers;
+        this.deltaTime = deltaTime;
+        this.checkContacts = checkContacts;
+
+        int count = enemies.size();
+        chunkCount = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        ensureChunks(chunkCount);
+        for (int c = 0; c < chunkCount; c++) {
+            Chunk chunk = chunks[c];
+            chunk.from = c * CHUNK_SIZE;
+            chunk.to = Math.min(count, chunk.from + CHUNK_SIZE);
+            chunk.contacts.clear();
+            if (chunk.slack.length < neighbors.size()) {
+                chunk.slack = new double[Math.max(neighbors.size(), chunk.slack.length * 2)];
+            }
+        }
+
+        boolean parallel = count >= PARALLEL_THRESHOLD && pool.getParallelism() > 1;
+        // Между проходами барьер: расталкивание читает позиции, которые движение потом меняет
+        runPass(PASS_SEPARATION, parallel);
+        runPass(PASS_MOVE, parallel);
+
+        this.enemies = null;
+        this.soldiers = null;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    // Касания куска: пары (индекс врага, индекс солдата) подряд, в порядке врагов
+    public IntList getContacts(int chunk) {
+        return chunks[chunk].contacts;
+    }
+
+    private void runPass(int pass, boolean parallel) {
+        for (int c = 0; c < chunkCount; c++) {
+            chunks[c].pass = pass;
+        }
+        if (!parallel) {
+            for (int c = 0; c < chunkCount; c++) {
+                chunks[c].runRange();
+            }
+            return;
+        }
+        root.reinitialize();
+        pool.invoke(root);
+    }
+
+    private void ensureChunks(int count) {
+        if (chunks.length >= count) return;
+        Chunk[] grown = new Chunk[Math.max(count, chunks.length * 2)];
+        System.arraycopy(chunks, 0, grown, 0, chunks.length);
+        for (int i = chunks.length; i < grown.length; i++) {
+            grown[i] = new Chunk();
+        }
+        chunks = grown;
+    }
+
+    // Раздаёт куски пулу и ждёт все; свободные потоки воруют ещё не начатые куски
+    private class Root extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void compute() {
+            for (int c = 1; c < chunkCount; c++) {
+                chunks[c].reinitialize();
+                chunks[c].fork();
+            }
+            chunks[0].runRange();
+            for (int c = chunkCount - 1; c >= 1; c--) {
+                chunks[c].join();
+            }
+        }
+    }
+
+    private class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        int from, to;
+        int pass;
+        final IntList hits = new IntList();
+        double[] slack = new double[64];
+        final IntList contacts = new IntList();
+
+        @Override
+        protected void compute() {
+            runRange();
+        }
+
+        void runRange() {
+            if (pass == PASS_SEPARATION) {
+                separate();
+            } else {
+                move();
+            }
+        }
+
+        private void separate() {
+            for (int i = from; i < to; i++) {
+                if (lod.getTicks(i) > 0 && lod.getLevel(i) != SimulationLod.Level.DORMANT) {
+                    enemies.get(i).computeSeparation(neighbors, i, hits, slack);
+                }
+            }
+        }
+
+        private void move() {
+            ObstacleField obstacles = grid.getObstacleField();
+            for (int i = from; i < to; i++) {
+                Enemy enemy = enemies.get(i);
+                int ticks = lod.getTicks(i);
+                if (ticks > 0) {
+                    if (lod.getLevel(i) == SimulationLod.Level.DORMANT) {
+                        enemy.advanceAlongFlow(grid, snapshot, target, ticks);
+                    } else {
+                        enemy.update(deltaTime, target, obstacles, ticks);
+                    }
+                }
+                if (checkContacts && enemy.isAlive()) {
+                    collectContacts(i, enemy);
+                }
+            }
+        }
+
+        private void collectContacts(int index, Enemy enemy) {
+            Vector2D pos = enemy.getPosition();
+            for (int s = 0; s < soldiers.size(); s++) {
+                PlayerSoldier soldier = soldiers.get(s);
+                double dx = pos.x - soldier.getPosition().x;
+                double dy = pos.y - soldier.getPosition().y;
+                double limit = enemy.getRadius() + soldier.getRadius();
+                if (dx * dx + dy * dy <= limit * limit) {
+                    contacts.add(index);
+                    contacts.add(s);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,204 @@
+import java.awt.*;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+
+// Рисует кадр по RenderSnapshot. Живые объекты игры не трогает, поэтому может работать
+// в своём потоке одновременно со следующим шагом симуляции
+public class FrameRenderer {
+    private final Ellipse2D.Double shape = new Ellipse2D.Double();
+    private BufferedImage fogLayer;
+    private int fogLayerW;
+    private int fogLayerH;
+
+    private double alpha;
+    private double offsetX;
+    private double offsetY;
+
+    // alpha - доля фиксированного шага, прошедшая после снимка
+    public void draw(Graphics2D g2d, RenderSnapshot snapshot, double alpha, int screenWidth, int screenHeight) {
+        this.alpha = alpha;
+        offsetX = lerp(snapshot.previousOffsetX, snapshot.offsetX);
+        offsetY = lerp(snapshot.previousOffsetY, snapshot.offsetY);
+
+        for (int i = 0; i < snapshot.obstacleCount; i++) {
+            Obstacle.draw(g2d, snapshot.obstacleX[i], snapshot.obstacleY[i],
+                    snapshot.obstacleWidth[i], snapshot.obstacleHeight[i],
+                    snapshot.obstacleHealth[i], snapshot.obstacleMaxHealth[i], offsetX, offsetY);
+        }
+
+        RenderSnapshot.Layer soldiers = snapshot.soldiers;
+        for (int i = 0; i < soldiers.count; i++) {
+            PlayerSoldier.draw(g2d, lerpX(soldiers, i), lerpY(soldiers, i), soldiers.size[i],
+                    soldiers.kind[i], soldiers.value[i] > 0, offsetX, offsetY);
+        }
+
+        RenderSnapshot.Layer enemies = snapshot.enemies;
+        for (int i = 0; i < enemies.count; i++) {
+            Enemy.draw(g2d, lerpX(enemies, i), lerpY(enemies, i), enemies.size[i], enemies.value[i],
+                    enemies.kind[i], snapshot.enemySteerX[i], snapshot.enemySteerY[i], snapshot.showPaths,
+                    offsetX, offsetY);
+        }
+
+        drawBoss(g2d, snapshot);
+
+        RenderSnapshot.Layer projectiles = snapshot.projectiles;
+        for (int i = 0; i < projectiles.count; i++) {
+            ProjectileSystem.draw(g2d, shape, projectiles.kind[i], lerpX(projectiles, i), lerpY(projectiles, i),
+                    projectiles.size[i], offsetX, offsetY);
+        }
+
+        RenderSnapshot.Layer particles = snapshot.particles;
+        for (int i = 0; i < particles.count; i++) {
+            ParticleSystem.draw(g2d, shape, snapshot.particleShades, particles.kind[i], particles.value[i],
+                    lerpX(particles, i), lerpY(particles, i), particles.size[i], offsetX, offsetY);
+        }
+
+        RenderSnapshot.Layer bonuses = snapshot.bonuses;
+        for (int i = 0; i < bonuses.count; i++) {
+            Bonus.draw(g2d, lerpX(bonuses, i), lerpY(bonuses, i), bonuses.size[i], bonuses.kind[i],
+                    bonuses.value[i], offsetX, offsetY);
+        }
+
+        drawFog(g2d, snapshot, screenWidth, screenHeight);
+
+        drawUI(g2d, snapshot, screenWidth, screenHeight);
+    }
+
+    private double lerp(double previous, double current) {
+        return previous + (current - previous) * alpha;
+    }
+
+    private double lerpX(RenderSnapshot.Layer layer, int i) {
+        return lerp(layer.previousX[i], layer.x[i]);
+    }
+
+    private double lerpY(RenderSnapshot.Layer layer, int i) {
+        return lerp(layer.previousY[i], layer.y[i]);
+    }
+
+    private void drawBoss(Graphics2D g2d, RenderSnapshot snapshot) {
+        double px = lerp(snapshot.bossPreviousX, snapshot.bossX);
+        double py = lerp(snapshot.bossPreviousY, snapshot.bossY);
+        switch (snapshot.bossType) {
+            case RenderSnapshot.BOSS_TANK:
+                TankBoss.draw(g2d, px, py, snapshot.bossRadius, snapshot.bossHealthRatio, snapshot.bossCharging,
+                        offsetX, offsetY);
+                break;
+            case RenderSnapshot.BOSS_HELICOPTER:
+                HelicopterBoss.draw(g2d, px, py, snapshot.bossRadius, snapshot.bossHealthRatio, offsetX, offsetY);
+                break;
+        }
+    }
+
+    private void drawUI(Graphics2D g2d, RenderSnapshot snapshot, int screenWidth, int screenHeight) {
+        g2d.setColor(new Color(0, 0, 0, 150));
+        g2d.fillRect(10, 10, 230, 200);
+
+        g2d.setColor(new Color(255, 50, 50));
+        g2d.fillRect(12, 12, (int) (226 * (snapshot.playerHealth / 100.0)), 16);
+
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(new Font("Arial", Font.BOLD, 12));
+        g2d.drawString("Health: " + snapshot.playerHealth, 16, 24);
+        g2d.drawString("Score: " + snapshot.score, 16, 42);
+        g2d.drawString("Squad: " + snapshot.squadSize, 16, 58);
+        g2d.drawString("Level: " + snapshot.level + " (" + snapshot.killsThisLevel + "/"
+                + snapshot.killsToAdvance + ")", 16, 74);
+        g2d.drawString("Grenades: " + snapshot.grenadesLeft + " CD: " + formatTime(snapshot.grenadeCooldown), 16, 90);
+        g2d.drawString("FireRate x" + formatFloat(snapshot.fireRateMultiplier), 16, 106);
+        g2d.drawString("MoveSpeed x" + formatFloat(snapshot.moveSpeedMultiplier), 16, 122);
+        g2d.drawString("Damage +" + snapshot.bulletDamageBonus, 16, 138);
+
+        if (snapshot.explosionRadiusBonus > 0) {
+            g2d.drawString("Explosion +" + (int) snapshot.explosionRadiusBonus, 16, 154);
+        }
+        if (snapshot.explosiveShotsTimer > 0) {
+            g2d.drawString("Explosive: " + formatTime(snapshot.explosiveShotsTimer), 16, 170);
+        }
+
+        if (snapshot.bossType != RenderSnapshot.BOSS_NONE) {
+            int barWidth = 240;
+            int barHeight = 12;
+            int x = (screenWidth - barWidth) / 2;
+            int y = 10;
+
+            g2d.setColor(new Color(0, 0, 0, 180));
+            g2d.fillRect(x - 2, y - 2, barWidth + 4, barHeight + 20);
+            g2d.setColor(Color.DARK_GRAY);
+            g2d.fillRect(x, y, barWidth, barHeight);
+            g2d.setColor(new Color(200, 80, 80));
+            g2d.fillRect(x, y, (int) (barWidth * snapshot.bossHealthRatio), barHeight);
+            g2d.setColor(Color.WHITE);
+            g2d.setFont(new Font("Arial", Font.BOLD, 12));
+            g2d.drawString("BOSS: " + snapshot.bossName, x, y + 24);
+        }
+        if (snapshot.godMode) {
+            g2d.setColor(new Color(255, 255, 100));
+            g2d.drawString("GOD MODE", screenWidth - 110, 22);
+        }
+
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(new Font("Arial", Font.PLAIN, 12));
+        g2d.drawString("WASD - move, LMB - shoot, G - grenade", 10, screenHeight - 30);
+        g2d.drawString("P - pause, O - god mode, I - paths", 10, screenHeight - 50);
+
+        if (snapshot.levelBannerTimer > 0) {
+            g2d.setFont(new Font("Arial", Font.BOLD, 24));
+            g2d.drawString("LEVEL " + snapshot.level, screenWidth / 2 - 60, 40);
+        }
+    }
+
+    private String formatTime(double value) {
+        if (value < 0) value = 0;
+        return String.format("%.1f", value);
+    }
+
+    private String formatFloat(double value) {
+        return String.format("%.2f", value);
+    }
+
+    private void drawFog(Graphics2D g2d, RenderSnapshot snapshot, int screenWidth, int screenHeight) {
+        int rows = snapshot.fogRows;
+        int cols = snapshot.fogCols;
+        if (rows == 0 || cols == 0) return;
+        if (fogLayer == null || fogLayerW != screenWidth || fogLayerH != screenHeight) {
+            fogLayerW = screenWidth;
+            fogLayerH = screenHeight;
+            fogLayer = new BufferedImage(screenWidth, screenHeight, BufferedImage.TYPE_INT_ARGB);
+        }
+
+        Graphics2D fg = fogLayer.createGraphics();
+        fg.setComposite(AlphaComposite.Src);
+        fg.setColor(Color.BLACK);
+        fg.fillRect(0, 0, screenWidth, screenHeight);
+
+        fg.setComposite(AlphaComposite.Clear);
+        double cellSize = snapshot.fogCellSize;
+        int size = (int) Math.ceil(cellSize) + 1;
+
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                if (!snapshot.fogVisible[r * cols + c]) continue;
+                int x = (int) Math.floor(c * cellSize - offsetX);
+                int y = (int) Math.floor(r * cellSize - offsetY);
+                fg.fillRect(x, y, size, size);
+            }
+        }
+
+        fg.setComposite(AlphaComposite.SrcOver);
+        fg.setColor(new Color(15, 15, 15));
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int index = r * cols + c;
+                if (snapshot.fogVisible[index]) continue;
+                if (!snapshot.fogSeen[index]) continue;
+                int x = (int) Math.floor(c * cellSize - offsetX);
+                int y = (int) Math.floor(r * cellSize - offsetY);
+                fg.fillRect(x, y, size, size);
+            }
+        }
+
+        fg.dispose();
+        g2d.drawImage(fogLayer, 0, 0, null);
+    }
+}
@@ -1,23 +1,35 @@
 import java.awt.*;
 import java.awt.event.KeyEvent;
 import java.awt.geom.Ellipse2D;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
 
 public class GameManager {
     private Squad squad;
     private List<Enemy> enemies;
-    private List<Bullet> bullets;
-    private List<Grenade> grenades;
-    private List<Particle> particles;
+    private ProjectileSystem projectiles;
+    private ParticleSystem particles;
     private List<Bonus> bonuses;
     private List<Obstacle> obstacles;
     private Camera camera;
     private Grid grid;
+    private SpatialHash enemyHash;
+    private final IntList explosionHits = new IntList();
+    private final List<Obstacle> explosionObstacles = new ArrayList<>();
+
+    // Взрывы копятся за тик и разбираются одним проходом; сверх бюджета переносятся на следующий тик
+    private final ArrayDeque<PendingExplosion> pendingExplosions = new ArrayDeque<>();
+    private final ArrayDeque<PendingExplosion> explosionPool = new ArrayDeque<>();
+    private static final int MAX_EXPLOSIONS_PER_TICK = 24;
+
+    private static final Color EXPLOSION_COLOR = new Color(255, 150, 0);
+    private static final Color SHELL_BURST_COLOR = new Color(255, 60, 60);
+    private static final Color SHELL_SPARK_COLOR = new Color(255, 140, 90);
+    private static final Color BOSS_DEATH_COLOR = new Color(255, 180, 80);
+
     private Boss boss;
-    private List<BossProjectile> bossProjectiles;
 
     private int score = 0;
     private int playerHealth = 100;
@@ -48,6 +60,10 @@ public class GameManager {
 
     private final double CELL_SIZE = 40.0;
     private double pathFieldTimer = 0;
+    private final PathScheduler pathScheduler = new PathScheduler();
+    private final SimulationLod simulationLod = new SimulationLod();
+    private final EnemyPhase enemyPhase = new EnemyPhase();
+    private final SnapshotExchange snapshots = new SnapshotExchange();
 
     private int level = 1;
     private int killsThisLevel = 0;
@@ -60,9 +76,6 @@ public class GameManager {
     private boolean[][] seenObstacleCells;
     private int fogRows;
     private int fogCols;
-    private java.awt.image.BufferedImage fogLayer;
-    private int fogLayerW;
-    private int fogLayerH;
     private boolean bossLevel = false;
     private double enemyHitSoundTimer = 0;
     private double playerHitSoundTimer = 0;
@@ -77,6 +90,7 @@ public class GameManager {
     private static final double EXPLOSIVE_SHOT_RADIUS = 60;
     private static final int EXPLOSIVE_SHOT_DAMAGE = 35;
     private static final double PATH_FIELD_INTERVAL = 0.25;
+    private static final double ENEMY_HASH_CELL_SIZE = 64;
 
     public GameManager(int screenWidth, int screenHeight) {
         worldWidth = screenWidth;
@@ -84,10 +98,8 @@ public class GameManager {
 
         squad = new Squad(screenWidth / 2.0, screenHeight / 2.0);
         enemies = new ArrayList<>();
-        bullets = new ArrayList<>();
-        grenades = new ArrayList<>();
-        bossProjectiles = new ArrayList<>();
-        particles = new ArrayList<>();
+        projectiles = new ProjectileSystem(worldWidth, worldHeight);
+        particles = new ParticleSystem();
         bonuses = new ArrayList<>();
         obstacles = new ArrayList<>();
         camera = new Camera();
@@ -96,6 +108,8 @@ public class GameManager {
     }
 
     public void update(double deltaTime, int screenWidth, int screenHeight) {
+        storePreviousState();
+
         if (levelBannerTimer > 0) {
             levelBannerTimer -= deltaTime;
         }
@@ -117,7 +131,7 @@ public class GameManager {
 
         handleMovement(deltaTime, screenWidth, screenHeight);
 
-        squad.update(deltaTime, obstacles);
+        squad.update(deltaTime, grid);
 
         camera.update(squad.getMainPosition(), screenWidth, screenHeight);
 
@@ -126,6 +140,7 @@ public class GameManager {
             grid.updateDistanceField(squad.getMainPosition());
             pathFieldTimer = 0;
         }
+        grid.acquireDistanceSnapshot();
 
         if (!bossLevel) {
             enemySpawnTimer += deltaTime;
@@ -137,19 +152,24 @@ public class GameManager {
             enemySpawnTimer = 0;
         }
 
-        for (Enemy enemy : enemies) {
-            enemy.update(deltaTime, squad.getMainPosition(), grid);
-            if (!godMode) {
-                for (PlayerSoldier soldier : squad.getSoldiers()) {
-                    double distance = soldier.getPosition().distanceTo(enemy.getPosition());
-                    if (distance < soldier.getRadius() + enemy.getRadius()) {
-                        playerHealth -= 1;
-                        camera.shake(5, 0.3);
-                        playPlayerHitSound();
-                    }
-                }
+        simulationLod.plan(enemies, camera, screenWidth, screenHeight, grid);
+        pathScheduler.update(enemies, squad.getMainPosition(), grid);
+        enemyHash.build(enemies);
+        enemyPhase.run(enemies, enemyHash, simulationLod, grid, squad.getMainPosition(),
+                squad.getSoldiers(), deltaTime, !godMode);
+        // Касания разбираются в порядке врагов, независимо от того, как куски разошлись по потокам
+        for (int c = 0; c < enemyPhase.getChunkCount(); c++) {
+            IntList contacts = enemyPhase.getContacts(c);
+            for (int k = 0; k < contacts.size(); k += 2) {
+                playerHealth -= 1;
+                camera.shake(5, 0.3);
+                playPlayerHitSound();
             }
         }
+        // Убитые на прошлом тике не должны ловить пули: убираем их до сборки хэша.
+        // Позиции врагов на этот тик известны: дальше пули и взрывы ищут врагов через хэш
+        removeDeadEnemies();
+        enemyHash.build(enemies);
 
         if (boss != null && boss.isAlive()) {
             boss.update(deltaTime, squad.getMainPosition(), this);
@@ -164,24 +184,15 @@ public class GameManager {
             }
         }
 
-        Iterator<Enemy> enemyIterator = enemies.iterator();
-        while (enemyIterator.hasNext()) {
-            Enemy enemy = enemyIterator.next();
-            if (!enemy.isAlive()) {
-                enemyIterator.remove();
-            }
-        }
-
         if (isShooting && shootCooldown <= 0) {
             shoot();
             shootCooldown = BASE_SHOOT_COOLDOWN / Math.max(0.1, fireRateMultiplier);
         }
         shootCooldown -= deltaTime;
 
-        updateBullets();
-        updateGrenades(deltaTime);
-        updateBossProjectiles(deltaTime);
-        updateParticles(deltaTime);
+        projectiles.update(deltaTime, grid, enemyHash, this);
+        processExplosions();
+        particles.update(deltaTime);
         updateBonuses(deltaTime);
         updateObstacles();
         updateVisibility();
@@ -189,169 +200,109 @@ public class GameManager {
         if (killsThisLevel >= killsToAdvance) {
             nextLevel();
         }
-    }
-
-    private void updateBullets() {
-        boolean explosiveShotsActive = explosiveShotsTimer > 0;
-        Iterator<Bullet> bulletIterator = bullets.iterator();
-        while (bulletIterator.hasNext()) {
-            Bullet bullet = bulletIterator.next();
-            bullet.update(obstacles);
-
-            if (!bullet.isActive()) {
-                if (explosiveShotsActive) {
-                    explodeAt(bullet.getPosition(),
-                            EXPLOSIVE_SHOT_RADIUS + explosionRadiusBonus,
-                            EXPLOSIVE_SHOT_DAMAGE + bulletDamageBonus,
-                            true, 6, 0.3);
-                }
-                bulletIterator.remove();
-                continue;
-            }
 
-            boolean bulletRemoved = false;
-            for (Enemy enemy : enemies) {
-                if (bullet.checkCollision(enemy)) {
-                    applyDamageToEnemy(enemy, bullet.getDamage());
-                    if (explosiveShotsActive) {
-                        explodeAt(bullet.getPosition(),
-                                EXPLOSIVE_SHOT_RADIUS + explosionRadiusBonus,
-                                EXPLOSIVE_SHOT_DAMAGE + bulletDamageBonus,
-                                true, 6, 0.3);
-                    }
-                    bulletIterator.remove();
-                    bulletRemoved = true;
-                    break;
-                }
-            }
+        // Отрисовка рисует этот снимок в своём потоке, пока здесь считается следующий шаг
+        publishSnapshot();
+    }
 
-            if (!bulletRemoved && boss != null && boss.isAlive()) {
-                double distance = boss.getPosition().distanceTo(bullet.getPosition());
-                if (distance < boss.getRadius() + 4) {
-                    applyDamageToBoss(boss, bullet.getDamage());
-                    if (explosiveShotsActive) {
-                        explodeAt(bullet.getPosition(),
-                                EXPLOSIVE_SHOT_RADIUS + explosionRadiusBonus,
-                                EXPLOSIVE_SHOT_DAMAGE + bulletDamageBonus,
-                                true, 6, 0.3);
-                    }
-                    bulletIterator.remove();
-                    bulletRemoved = true;
-                }
-            }
+    // Обратные вызовы ProjectileSystem: правила попаданий остаются здесь
 
-            if (!bulletRemoved && !bullet.isActive()) {
-                bulletIterator.remove();
-            }
+    void onBulletImpact(Vector2D position) {
+        if (explosiveShotsTimer > 0) {
+            explodeAt(position,
+                    EXPLOSIVE_SHOT_RADIUS + explosionRadiusBonus,
+                    EXPLOSIVE_SHOT_DAMAGE + bulletDamageBonus,
+                    true, 6, 0.3);
         }
     }
 
-    private void updateGrenades(double deltaTime) {
-        Iterator<Grenade> grenadeIterator = grenades.iterator();
-        while (grenadeIterator.hasNext()) {
-            Grenade grenade = grenadeIterator.next();
-            if (grenade.update(deltaTime, obstacles)) {
-                explodeGrenadeAt(grenade.getPosition());
-                grenadeIterator.remove();
-            }
+    boolean hitBossWithBullet(Vector2D position, int damage) {
+        if (boss == null || !boss.isAlive()) return false;
+        double distance = boss.getPosition().distanceTo(position);
+        if (distance < boss.getRadius() + 4) {
+            applyDamageToBoss(boss, damage);
+            return true;
         }
+        return false;
     }
 
-    private void updateBossProjectiles(double deltaTime) {
-        if (bossProjectiles == null || bossProjectiles.isEmpty()) return;
-
-        Iterator<BossProjectile> iter = bossProjectiles.iterator();
-        while (iter.hasNext()) {
-            BossProjectile projectile = iter.next();
-            boolean remove = projectile.update(deltaTime, obstacles);
-
-            if (projectile.shouldExplode()) {
-                explodeAt(projectile.getPosition(),
-                        projectile.getExplosionRadius(),
-                        projectile.getDamage(),
-                        true, 8, 0.4);
-                SoundManager.playGrenadeExplosion();
-            } else if (!remove && projectile.getKind() == BossProjectile.Kind.BULLET) {
-                if (!godMode) {
-                    double minDistance = Double.POSITIVE_INFINITY;
-                    for (PlayerSoldier soldier : squad.getSoldiers()) {
-                        double distance = soldier.getPosition().distanceTo(projectile.getPosition());
-                        if (distance < minDistance) {
-                            minDistance = distance;
-                        }
-                    }
-                    if (minDistance <= projectile.getRadius() + 8) {
-                        playerHealth = Math.max(0, playerHealth - projectile.getDamage());
-                        playPlayerHitSound();
-                        remove = true;
-                    }
-                }
-            } else if (!remove && projectile.getKind() == BossProjectile.Kind.SHELL) {
-                if (!godMode) {
-                    double minDistance = Double.POSITIVE_INFINITY;
-                    for (PlayerSoldier soldier : squad.getSoldiers()) {
-                        double distance = soldier.getPosition().distanceTo(projectile.getPosition());
-                        if (distance < minDistance) {
-                            minDistance = distance;
-                        }
-                    }
-                    if (minDistance <= projectile.getRadius() + 10) {
-                        explodeAt(projectile.getPosition(),
-                                projectile.getExplosionRadius(),
-                                projectile.getDamage(),
-                                true, 10, 0.5);
-                        SoundManager.playGrenadeExplosion();
-                        remove = true;
-                    }
-                }
-            }
+    boolean hitSquadWithBossBullet(Vector2D position, double radius, int damage) {
+        if (!isSquadNear(position, radius + 8)) return false;
+        playerHealth = Math.max(0, playerHealth - damage);
+        playPlayerHitSound();
+        return true;
+    }
 
-            if (remove) {
-                iter.remove();
+    boolean isSquadNear(Vector2D position, double distance) {
+        if (godMode) return false;
+        List<PlayerSoldier> soldiers = squad.getSoldiers();
+        for (int i = 0; i < soldiers.size(); i++) {
+            if (soldiers.get(i).getPosition().distanceTo(position) <= distance) {
+                return true;
             }
         }
+        return false;
+    }
+
+    void explodeShell(Vector2D position, double radius, int damage, double shakeIntensity, double shakeDuration) {
+        queueExplosion(position, radius, damage, true, shakeIntensity, shakeDuration, false, true);
     }
 
-    private void updateParticles(double deltaTime) {
-        Iterator<Particle> particleIter = particles.iterator();
-        while (particleIter.hasNext()) {
-            Particle particle = particleIter.next();
-            particle.update(deltaTime);
-            if (!particle.isActive()) {
-                particleIter.remove();
+    // Удаление без итераторов: живые сдвигаются к началу списка, хвост обрезается
+    private void removeDeadEnemies() {
+        int kept = 0;
+        for (int i = 0; i < enemies.size(); i++) {
+            Enemy enemy = enemies.get(i);
+            if (enemy.isAlive()) {
+                enemies.set(kept++, enemy);
             }
         }
+        truncate(enemies, kept);
     }
 
     private void updateBonuses(double deltaTime) {
-        Iterator<Bonus> bonusIter = bonuses.iterator();
-        while (bonusIter.hasNext()) {
-            Bonus bonus = bonusIter.next();
+        List<PlayerSoldier> soldiers = squad.getSoldiers();
+        int kept = 0;
+        for (int i = 0; i < bonuses.size(); i++) {
+            Bonus bonus = bonuses.get(i);
             bonus.update(deltaTime);
             if (!bonus.isActive()) {
-                bonusIter.remove();
                 continue;
             }
 
-            for (PlayerSoldier soldier : squad.getSoldiers()) {
+            boolean picked = false;
+            for (int s = 0; s < soldiers.size(); s++) {
+                PlayerSoldier soldier = soldiers.get(s);
                 if (bonus.checkCollision(soldier.getPosition(), soldier.getRadius())) {
                     applyBonus(bonus);
-                    bonusIter.remove();
+                    picked = true;
                     break;
                 }
             }
+            if (!picked) {
+                bonuses.set(kept++, bonus);
+            }
         }
+        truncate(bonuses, kept);
     }
 
     private void updateObstacles() {
-        Iterator<Obstacle> obstacleIter = obstacles.iterator();
-        while (obstacleIter.hasNext()) {
-            Obstacle obstacle = obstacleIter.next();
-            if (!obstacle.isActive()) {
+        int kept = 0;
+        for (int i = 0; i < obstacles.size(); i++) {
+            Obstacle obstacle = obstacles.get(i);
+            if (obstacle.isActive()) {
+                obstacles.set(kept++, obstacle);
+            } else {
                 grid.removeObstacle(obstacle);
-                obstacleIter.remove();
             }
         }
+        truncate(obstacles, kept);
+    }
+
+    private static void truncate(List<?> list, int size) {
+        for (int i = list.size() - 1; i >= size; i--) {
+            list.remove(i);
+        }
     }
 
     private void handleMovement(double deltaTime, int screenWidth, int screenHeight) {
@@ -407,48 +358,71 @@ public class GameManager {
 
     private void shoot() {
         int damage = BASE_BULLET_DAMAGE + bulletDamageBonus;
-        for (PlayerSoldier soldier : squad.getSoldiers()) {
-            Vector2D pos = soldier.getPosition();
-            bullets.add(new Bullet(
-                    pos.x, pos.y,
-                    mousePosition.x, mousePosition.y,
-                    new Color(255, 255, 100),
-                    damage
-            ));
+        List<PlayerSoldier> soldiers = squad.getSoldiers();
+        for (int i = 0; i < soldiers.size(); i++) {
+            Vector2D pos = soldiers.get(i).getPosition();
+            projectiles.spawnBullet(pos.x, pos.y, mousePosition.x, mousePosition.y, damage);
         }
         SoundManager.playShoot();
     }
 
     private void explodeAt(Vector2D position, double radius, int damage,
                            boolean affectPlayer, double shakeIntensity, double shakeDuration) {
-        createExplosionEffect(position, new Color(255, 150, 0), 20);
-        camera.shake(shakeIntensity, shakeDuration);
-        applyExplosionDamage(position, radius, damage, affectPlayer);
+        queueExplosion(position, radius, damage, affectPlayer, shakeIntensity, shakeDuration, false, false);
     }
 
-    private void explodeGrenadeAt(Vector2D position) {
-        double radius = BASE_GRENADE_RADIUS + explosionRadiusBonus;
-        int damage = BASE_GRENADE_DAMAGE;
+    void explodeGrenadeAt(Vector2D position) {
+        queueExplosion(position, BASE_GRENADE_RADIUS + explosionRadiusBonus, BASE_GRENADE_DAMAGE,
+                true, 12, 0.6, true, true);
+    }
 
-        createExplosionEffect(position, new Color(255, 60, 60), 40, 8, 18, 3, 10);
-        createExplosionEffect(position, new Color(255, 140, 90), 18, 4, 10, 2, 7);
-        camera.shake(12, 0.6);
-        applyExplosionDamage(position, radius, damage, true);
-        SoundManager.playGrenadeExplosion();
+    private void queueExplosion(Vector2D position, double radius, int damage, boolean affectPlayer,
+                                double shakeIntensity, double shakeDuration, boolean grenade, boolean sound) {
+        PendingExplosion explosion = explosionPool.isEmpty() ? new PendingExplosion() : explosionPool.pop();
+        explosion.position.x = position.x;
+        explosion.position.y = position.y;
+        explosion.radius = radius;
+        explosion.damage = damage;
+        explosion.affectPlayer = affectPlayer;
+        explosion.shakeIntensity = shakeIntensity;
+        explosion.shakeDuration = shakeDuration;
+        explosion.grenade = grenade;
+        explosion.sound = sound;
+        pendingExplosions.add(explosion);
+    }
+
+    private void processExplosions() {
+        for (int i = 0; i < MAX_EXPLOSIONS_PER_TICK && !pendingExplosions.isEmpty(); i++) {
+            PendingExplosion explosion = pendingExplosions.poll();
+            Vector2D position = explosion.position;
+            if (explosion.grenade) {
+                createExplosionEffect(position, SHELL_BURST_COLOR, 40, 8, 18, 3, 10);
+                createExplosionEffect(position, SHELL_SPARK_COLOR, 18, 4, 10, 2, 7);
+            } else {
+                createExplosionEffect(position, EXPLOSION_COLOR, 20);
+            }
+            camera.shake(explosion.shakeIntensity, explosion.shakeDuration);
+            applyExplosionDamage(position, explosion.radius, explosion.damage, explosion.affectPlayer);
+            if (explosion.sound) {
+                SoundManager.playGrenadeExplosion();
+            }
+            explosionPool.push(explosion);
+        }
     }
 
     private void applyExplosionDamage(Vector2D position, double radius, int damage, boolean affectPlayer) {
-        for (Enemy enemy : enemies) {
+        enemyHash.queryCircle(position.x, position.y, radius, explosionHits);
+        for (int i = 0; i < explosionHits.size(); i++) {
+            Enemy enemy = enemyHash.get(explosionHits.get(i));
             if (!enemy.isAlive()) continue;
             double distance = enemy.getPosition().distanceTo(position);
-            if (distance <= radius + enemy.getRadius()) {
-                int scaled = scaleDamage(damage, distance, radius);
-                applyDamageToEnemy(enemy, scaled);
-            }
+            applyDamageToEnemy(enemy, scaleDamage(damage, distance, radius));
         }
 
-        for (Obstacle obstacle : obstacles) {
-            if (!obstacle.isActive()) continue;
+        // Центр задетого ящика не дальше radius + половины самого большого ящика
+        grid.queryObstacles(position.x, position.y, radius + grid.getMaxObstacleHalfSize(), explosionObstacles);
+        for (int i = 0; i < explosionObstacles.size(); i++) {
+            Obstacle obstacle = explosionObstacles.get(i);
             double distance = obstacle.getPosition().distanceTo(position);
             double obstacleRadius = Math.max(obstacle.getWidth(), obstacle.getHeight()) / 2.0;
             if (distance <= radius + obstacleRadius) {
@@ -467,8 +441,9 @@ public class GameManager {
 
         if (affectPlayer && !godMode) {
             double minDistance = Double.POSITIVE_INFINITY;
-            for (PlayerSoldier soldier : squad.getSoldiers()) {
-                double distance = soldier.getPosition().distanceTo(position);
+            List<PlayerSoldier> soldiers = squad.getSoldiers();
+            for (int i = 0; i < soldiers.size(); i++) {
+                double distance = soldiers.get(i).getPosition().distanceTo(position);
                 if (distance < minDistance) {
                     minDistance = distance;
                 }
@@ -489,7 +464,7 @@ public class GameManager {
         return Math.max(1, (int) Math.round(baseDamage * factor));
     }
 
-    private void applyDamageToEnemy(Enemy enemy, int damage) {
+    void applyDamageToEnemy(Enemy enemy, int damage) {
         if (!enemy.isAlive()) return;
         if (enemy.takeDamage(damage)) {
             onEnemyKilled(enemy);
@@ -507,7 +482,7 @@ public class GameManager {
     }
 
     private void onBossKilled(Boss boss) {
-        createExplosionEffect(boss.getPosition(), new Color(255, 180, 80), 40);
+        createExplosionEffect(boss.getPosition(), BOSS_DEATH_COLOR, 40);
         camera.shake(14, 0.8);
         score += 1000;
         killsThisLevel = killsToAdvance;
@@ -515,7 +490,7 @@ public class GameManager {
     }
 
     private void onEnemyKilled(Enemy enemy) {
-        createExplosionEffect(enemy.getPosition(), new Color(255, 150, 0), 20);
+        createExplosionEffect(enemy.getPosition(), EXPLOSION_COLOR, 20);
         camera.shake(10, 0.5);
         score += 100;
         killsThisLevel += 1;
@@ -535,15 +510,7 @@ public class GameManager {
 
     private void createExplosionEffect(Vector2D position, Color color, int count,
                                        double sizeMin, double sizeMax, double speedMin, double speedMax) {
-        for (int i = 0; i < count; i++) {
-            particles.add(new Particle(
-                    position.x,
-                    position.y,
-                    color,
-                    sizeMin, sizeMax,
-                    speedMin, speedMax
-            ));
-        }
+        particles.spawnBurst(position.x, position.y, color, count, sizeMin, sizeMax, speedMin, speedMax);
     }
 
     private void applyBonus(Bonus bonus) {
@@ -592,113 +559,67 @@ public class GameManager {
         }
     }
 
-    public void draw(Graphics2D g2d, int screenWidth, int screenHeight) {
-        for (Obstacle obstacle : obstacles) {
-            obstacle.draw(g2d, camera);
-        }
-
-        squad.draw(g2d, camera);
-
-        for (Enemy enemy : enemies) {
-            enemy.draw(g2d, camera, showPaths);
-        }
-
-        if (boss != null && boss.isAlive()) {
-            boss.draw(g2d, camera);
-        }
-
-        for (Bullet bullet : bullets) {
-            bullet.draw(g2d, camera);
-        }
-
-        for (Grenade grenade : grenades) {
-            grenade.draw(g2d, camera);
-        }
-
-        if (bossProjectiles != null) {
-            for (BossProjectile projectile : bossProjectiles) {
-                projectile.draw(g2d, camera);
-            }
-        }
-
-        for (Particle particle : particles) {
-            particle.draw(g2d, camera);
-        }
-
-        for (Bonus bonus : bonuses) {
-            bonus.draw(g2d, camera);
-        }
-
-        drawFog(g2d, screenWidth, screenHeight);
-
-        drawUI(g2d, screenWidth, screenHeight);
-    }
-
-    private void drawUI(Graphics2D g2d, int screenWidth, int screenHeight) {
-        g2d.setColor(new Color(0, 0, 0, 150));
-        g2d.fillRect(10, 10, 230, 200);
-
-        g2d.setColor(new Color(255, 50, 50));
-        g2d.fillRect(12, 12, (int) (226 * (playerHealth / 100.0)), 16);
-
-        g2d.setColor(Color.WHITE);
-        g2d.setFont(new Font("Arial", Font.BOLD, 12));
-        g2d.drawString("Health: " + playerHealth, 16, 24);
-        g2d.drawString("Score: " + score, 16, 42);
-        g2d.drawString("Squad: " + squad.getSize(), 16, 58);
-        g2d.drawString("Level: " + level + " (" + killsThisLevel + "/" + killsToAdvance + ")", 16, 74);
-        g2d.drawString("Grenades: " + grenadesLeft + " CD: " + formatTime(grenadeCooldownTimer), 16, 90);
-        g2d.drawString("FireRate x" + formatFloat(fireRateMultiplier), 16, 106);
-        g2d.drawString("MoveSpeed x" + formatFloat(moveSpeedMultiplier), 16, 122);
-        g2d.drawString("Damage +" + bulletDamageBonus, 16, 138);
-
-        if (explosionRadiusBonus > 0) {
-            g2d.drawString("Explosion +" + (int) explosionRadiusBonus, 16, 154);
+    // Запоминает позиции перед шагом симуляции, чтобы отрисовка могла интерполировать между шагами
+    private void storePreviousState() {
+        camera.storePreviousOffset();
+        squad.storePreviousPositions();
+        for (int i = 0; i < enemies.size(); i++) {
+            enemies.get(i).storePreviousPosition();
         }
-        if (explosiveShotsTimer > 0) {
-            g2d.drawString("Explosive: " + formatTime(explosiveShotsTimer), 16, 170);
-        }
-
-        if (boss != null && boss.isAlive()) {
-            int barWidth = 240;
-            int barHeight = 12;
-            int x = (screenWidth - barWidth) / 2;
-            int y = 10;
-            double ratio = boss.getMaxHealth() > 0 ? (boss.getHealth() / (double) boss.getMaxHealth()) : 0;
-
-            g2d.setColor(new Color(0, 0, 0, 180));
-            g2d.fillRect(x - 2, y - 2, barWidth + 4, barHeight + 20);
-            g2d.setColor(Color.DARK_GRAY);
-            g2d.fillRect(x, y, barWidth, barHeight);
-            g2d.setColor(new Color(200, 80, 80));
-            g2d.fillRect(x, y, (int) (barWidth * ratio), barHeight);
-            g2d.setColor(Color.WHITE);
-            g2d.setFont(new Font("Arial", Font.BOLD, 12));
-            g2d.drawString("BOSS: " + boss.getName(), x, y + 24);
+        for (int i = 0; i < bonuses.size(); i++) {
+            bonuses.get(i).storePreviousPosition();
         }
-        if (godMode) {
-            g2d.setColor(new Color(255, 255, 100));
-            g2d.drawString("GOD MODE", screenWidth - 110, 22);
-        }
-
-        g2d.setColor(Color.WHITE);
-        g2d.setFont(new Font("Arial", Font.PLAIN, 12));
-        g2d.drawString("WASD - move, LMB - shoot, G - grenade", 10, screenHeight - 30);
-        g2d.drawString("P - pause, O - god mode, I - paths", 10, screenHeight - 50);
-
-        if (levelBannerTimer > 0) {
-            g2d.setFont(new Font("Arial", Font.BOLD, 24));
-            g2d.drawString("LEVEL " + level, screenWidth / 2 - 60, 40);
+        if (boss != null) {
+            boss.storePreviousPosition();
         }
     }
 
-    private String formatTime(double value) {
-        if (value < 0) value = 0;
-        return String.format("%.1f", value);
+    // Снимок состояния для отрисовки; заполняется в потоке симуляции
+    public void writeSnapshot(RenderSnapshot out) {
+        out.previousOffsetX = camera.getPreviousOffsetX();
+        out.previousOffsetY = camera.getPreviousOffsetY();
+        out.offsetX = camera.getOffsetX();
+        out.offsetY = camera.getOffsetY();
+
+        for (int i = 0; i < obstacles.size(); i++) {
+            obstacles.get(i).writeTo(out);
+        }
+        squad.writeTo(out);
+        for (int i = 0; i < enemies.size(); i++) {
+            enemies.get(i).writeTo(out);
+        }
+        if (boss != null) {
+            boss.writeTo(out);
+        }
+        projectiles.writeTo(out);
+        particles.writeTo(out);
+        for (int i = 0; i < bonuses.size(); i++) {
+            bonuses.get(i).writeTo(out);
+        }
+        out.setFog(visibleCells, seenObstacleCells, fogRows, fogCols, grid != null ? grid.getCellSize() : 0);
+
+        out.playerHealth = playerHealth;
+        out.score = score;
+        out.squadSize = squad.getSize();
+        out.level = level;
+        out.killsThisLevel = killsThisLevel;
+        out.killsToAdvance = killsToAdvance;
+        out.grenadesLeft = grenadesLeft;
+        out.grenadeCooldown = grenadeCooldownTimer;
+        out.fireRateMultiplier = fireRateMultiplier;
+        out.moveSpeedMultiplier = moveSpeedMultiplier;
+        out.bulletDamageBonus = bulletDamageBonus;
+        out.explosionRadiusBonus = explosionRadiusBonus;
+        out.explosiveShotsTimer = explosiveShotsTimer;
+        out.levelBannerTimer = levelBannerTimer;
+        out.godMode = godMode;
+        out.showPaths = showPaths;
+        out.gameOver = isGameOver();
     }
 
-    private String formatFloat(double value) {
-        return String.format("%.2f", value);
+    private void publishSnapshot() {
+        writeSnapshot(snapshots.beginWrite());
+        snapshots.publish();
     }
 
     public void setShooting(boolean shooting) {
@@ -745,15 +666,18 @@ public class GameManager {
         if (grenadeCooldownTimer > 0) return;
 
         Vector2D pos = squad.getMainPosition();
-        grenades.add(new Grenade(pos.x, pos.y, mousePosition.x, mousePosition.y));
+        projectiles.spawnGrenade(pos.x, pos.y, mousePosition.x, mousePosition.y);
         grenadesLeft -= 1;
         grenadeCooldownTimer = BASE_GRENADE_COOLDOWN;
         SoundManager.playGrenadeThrow();
     }
 
-    public void addBossProjectile(BossProjectile projectile) {
-        if (projectile == null) return;
-        bossProjectiles.add(projectile);
+    public SnapshotExchange getSnapshots() {
+        return snapshots;
+    }
+
+    public ProjectileSystem getProjectiles() {
+        return projectiles;
     }
 
     public int getWorldWidth() {
@@ -776,6 +700,10 @@ public class GameManager {
         return playerHealth;
     }
 
+    public int getLevel() {
+        return level;
+    }
+
     private void nextLevel() {
         level += 1;
         applyLevelConfig(buildLevelConfig(level), true);
@@ -799,14 +727,16 @@ public class GameManager {
         grenadesLeft = BASE_GRENADE_LIMIT;
 
         enemies.clear();
-        bullets.clear();
-        grenades.clear();
-        bossProjectiles.clear();
+        projectiles.clear();
         particles.clear();
         bonuses.clear();
+        explosionPool.addAll(pendingExplosions);
+        pendingExplosions.clear();
         obstacles.clear();
 
         grid = new Grid(worldWidth, worldHeight, CELL_SIZE);
+        grid.setSearchMode(config.searchMode);
+        enemyHash = new SpatialHash(worldWidth, worldHeight, ENEMY_HASH_CELL_SIZE);
         generateObstacles(config);
 
         boss = null;
@@ -968,6 +898,7 @@ public class GameManager {
             config.boxSizeMax = 45;
             config.boxHealthMin = 80;
             config.boxHealthMax = 120;
+            config.searchMode = Pathfinder.SearchMode.JPS;
         } else if (theme == LevelTheme.DENSE) {
             config.spawnInterval = Math.max(0.35, 0.9 - level * 0.05);
             config.wallCountMin = 7;
@@ -980,6 +911,7 @@ public class GameManager {
             config.boxSizeMax = 45;
             config.boxHealthMin = 100;
             config.boxHealthMax = 160;
+            config.searchMode = Pathfinder.SearchMode.ASTAR;
         } else if (theme == LevelTheme.HUGE) {
             config.wallCountMin = 2;
             config.wallCountMax = 3;
@@ -995,6 +927,7 @@ public class GameManager {
             config.enemySpeedMax = Math.max(1.2, config.enemySpeedMax - 0.2);
             config.enemyHealthMin += 40;
             config.enemyHealthMax += 60;
+            config.searchMode = Pathfinder.SearchMode.JPS;
         } else if (theme == LevelTheme.MAZE) {
             config.wallCountMin = 0;
             config.wallCountMax = 0;
@@ -1007,6 +940,7 @@ public class GameManager {
             config.boxHealthMin = 120;
             config.boxHealthMax = 180;
             config.mazeFillChance = 0.7;
+            config.searchMode = Pathfinder.SearchMode.ASTAR;
         } else if (theme == LevelTheme.BOSS_TANK) {
             config.wallCountMin = 2;
             config.wallCountMax = 3;
@@ -1044,9 +978,6 @@ public class GameManager {
         seenObstacleCells = null;
         fogRows = 0;
         fogCols = 0;
-        fogLayer = null;
-        fogLayerW = 0;
-        fogLayerH = 0;
     }
 
     private void ensureFogArrays() {
@@ -1073,22 +1004,22 @@ public class GameManager {
         }
 
         Vector2D playerPos = squad.getMainPosition();
-        GridCell playerCell = grid.getCellAtWorldPos(playerPos.x, playerPos.y);
-        if (playerCell == null) return;
+        double cellSize = grid.getCellSize();
+        int playerRow = (int) (playerPos.y / cellSize);
+        int playerCol = (int) (playerPos.x / cellSize);
+        if (playerRow < 0 || playerRow >= fogRows || playerCol < 0 || playerCol >= fogCols) return;
 
         double radius = worldWidth * 0.4;
         double radiusSq = radius * radius;
 
         for (int r = 0; r < fogRows; r++) {
+            double dy = (r + 0.5) * cellSize - playerPos.y;
             for (int c = 0; c < fogCols; c++) {
-                GridCell cell = grid.getCellAtGridPos(r, c);
-                if (cell == null) continue;
-                double dx = cell.worldX - playerPos.x;
-                double dy = cell.worldY - playerPos.y;
+                double dx = (c + 0.5) * cellSize - playerPos.x;
                 if (dx * dx + dy * dy > radiusSq) {
                     continue;
                 }
-                if (grid.hasLineOfSight(playerCell, cell)) {
+                if (grid.hasLineOfSight(playerRow, playerCol, r, c)) {
                     visibleCells[r][c] = true;
                 }
             }
@@ -1097,9 +1028,8 @@ public class GameManager {
         for (int r = 0; r < fogRows; r++) {
             for (int c = 0; c < fogCols; c++) {
                 if (!visibleCells[r][c]) continue;
-                GridCell cell = grid.getCellAtGridPos(r, c);
-                if (cell == null) continue;
-                if (cell.obstacle != null && cell.obstacle.isActive()) {
+                Obstacle obstacle = grid.getObstacle(r, c);
+                if (obstacle != null && obstacle.isActive()) {
                     seenObstacleCells[r][c] = true;
                 } else {
                     seenObstacleCells[r][c] = false;
@@ -1108,53 +1038,6 @@ public class GameManager {
         }
     }
 
-    private void drawFog(Graphics2D g2d, int screenWidth, int screenHeight) {
-        if (visibleCells == null || grid == null) return;
-        if (fogLayer == null || fogLayerW != screenWidth || fogLayerH != screenHeight) {
-            fogLayerW = screenWidth;
-            fogLayerH = screenHeight;
-            fogLayer = new java.awt.image.BufferedImage(screenWidth, screenHeight,
-                    java.awt.image.BufferedImage.TYPE_INT_ARGB);
-        }
-
-        Graphics2D fg = fogLayer.createGraphics();
-        fg.setComposite(AlphaComposite.Src);
-        fg.setColor(Color.BLACK);
-        fg.fillRect(0, 0, screenWidth, screenHeight);
-
-        fg.setComposite(AlphaComposite.Clear);
-        double cellSize = grid.getCellSize();
-        int size = (int) Math.ceil(cellSize) + 1;
-
-        for (int r = 0; r < fogRows; r++) {
-            for (int c = 0; c < fogCols; c++) {
-                if (!visibleCells[r][c]) continue;
-                GridCell cell = grid.getCellAtGridPos(r, c);
-                if (cell == null) continue;
-                int x = (int) Math.floor(cell.worldX - cellSize / 2 - camera.getOffsetX());
-                int y = (int) Math.floor(cell.worldY - cellSize / 2 - camera.getOffsetY());
-                fg.fillRect(x, y, size, size);
-            }
-        }
-
-        fg.setComposite(AlphaComposite.SrcOver);
-        fg.setColor(new Color(15, 15, 15));
-        for (int r = 0; r < fogRows; r++) {
-            for (int c = 0; c < fogCols; c++) {
-                if (visibleCells[r][c]) continue;
-                if (!seenObstacleCells[r][c]) continue;
-                GridCell cell = grid.getCellAtGridPos(r, c);
-                if (cell == null) continue;
-                int x = (int) Math.floor(cell.worldX - cellSize / 2 - camera.getOffsetX());
-                int y = (int) Math.floor(cell.worldY - cellSize / 2 - camera.getOffsetY());
-                fg.fillRect(x, y, size, size);
-            }
-        }
-
-        fg.dispose();
-        g2d.drawImage(fogLayer, 0, 0, null);
-    }
-
     private enum LevelTheme {
         SPARSE,
         DENSE,
@@ -1182,6 +1065,7 @@ public class GameManager {
         int enemyHealthMin;
         int enemyHealthMax;
         double mazeFillChance = 0.0;
+        Pathfinder.SearchMode searchMode = Pathfinder.SearchMode.AUTO;
         boolean bossLevel = false;
         int bossHealth = 800;
         double bossSpeed = 0.6;
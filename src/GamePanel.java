@@ -1,46 +1,145 @@
-import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+
+// Симуляция и отрисовка в двух собственных потоках. Цикл симуляции идёт фиксированными шагами
+// и в конце каждого шага публикует RenderSnapshot; поток отрисовки рисует последний снимок через
+// BufferStrategy, пока симуляция считает следующий. События AWT только складываются в InputQueue,
+// цикл симуляции разбирает их перед шагом
+public class GamePanel extends Canvas implements Runnable, KeyListener, MouseListener, MouseMotionListener {
+    private static final Color BACKGROUND = new Color(20, 20, 40);
 
-public class GamePanel extends JPanel implements ActionListener, KeyListener, MouseListener, MouseMotionListener {
     private GameManager gameManager;
-    private Timer gameTimer;
+    private Thread loopThread;
+    private Thread renderThread;
+    private volatile boolean running = false;
     private long lastUpdateTime;
-    private boolean paused = false;
+    private volatile boolean paused = false;
     private boolean pPressed = false;
     private boolean oPressed = false;
     private boolean iPressed = false;
     private boolean gPressed = false;
 
+    // Симуляция идёт фиксированными шагами 60 Гц независимо от частоты кадров;
+    // отрисовка интерполирует между двумя последними шагами
+    private static final double FIXED_STEP = 1.0 / 60.0;
+    private static final long FIXED_STEP_NANOS = (long) (FIXED_STEP * 1_000_000_000L);
+    // Догоняем не больше стольких шагов за раз, остаток отбрасываем (игра замедляется, а не зависает)
+    private static final int MAX_STEPS_PER_FRAME = 5;
+    private static final double MAX_FRAME_TIME = 0.25;
+    // Ограничение частоты кадров, чтобы отрисовка не крутилась вхолостую
+    private static final long FRAME_NANOS = 1_000_000_000L / 240;
+    private double accumulator = 0;
+
+    private final FrameRenderer renderer = new FrameRenderer();
+
+    private final InputQueue input = new InputQueue();
+    private final InputQueue.Handler inputHandler = this::handleInput;
+
     public GamePanel() {
         Dimension size = new Dimension(800, 600);
         gameManager = new GameManager(size.width, size.height);
 
-        setBackground(new Color(20, 20, 40));
+        setBackground(BACKGROUND);
         setPreferredSize(size);
         setFocusable(true);
-        requestFocusInWindow();
+        setIgnoreRepaint(true);
 
         addKeyListener(this);
         addMouseListener(this);
         addMouseMotionListener(this);
-
-        gameTimer = new Timer(16, this);
-        lastUpdateTime = System.nanoTime();
     }
 
+    // Вызывается после того, как окно показано: BufferStrategy требует отображаемого компонента
     public void startGame() {
-        gameTimer.start();
+        if (running) return;
+        createBufferStrategy(2);
+        requestFocus();
+        running = true;
+        loopThread = new Thread(this, "GameLoop");
+        renderThread = new Thread(this::renderLoop, "Render");
+        loopThread.start();
+        renderThread.start();
     }
 
+    // Поток симуляции: ввод, шаги и публикация снимков; спит до следующего шага
     @Override
-    protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
+    public void run() {
+        lastUpdateTime = System.nanoTime();
+        while (running) {
+            long frameStart = System.nanoTime();
+            double frameTime = Math.min((frameStart - lastUpdateTime) / 1_000_000_000.0, MAX_FRAME_TIME);
+            lastUpdateTime = frameStart;
+
+            input.drain(inputHandler);
+            if (!paused) {
+                accumulator += frameTime;
+                int steps = 0;
+                while (accumulator >= FIXED_STEP && steps < MAX_STEPS_PER_FRAME) {
+                    if (steps > 0) {
+                        input.drain(inputHandler);
+                    }
+                    gameManager.update(FIXED_STEP, getWidth(), getHeight());
+                    accumulator -= FIXED_STEP;
+                    steps++;
+                }
+                if (steps == MAX_STEPS_PER_FRAME && accumulator >= FIXED_STEP) {
+                    accumulator = 0;
+                }
+            }
 
-        Graphics2D g2d = (Graphics2D) g;
+            long sleep = paused ? FIXED_STEP_NANOS
+                    : (long) ((FIXED_STEP - accumulator) * 1_000_000_000L) - (System.nanoTime() - frameStart);
+            if (sleep > 0) {
+                LockSupport.parkNanos(sleep);
+            }
+        }
+    }
+
+    // Поток отрисовки: берёт самый свежий снимок и рисует его, не дожидаясь симуляции
+    private void renderLoop() {
+        BufferStrategy strategy = getBufferStrategy();
+        SnapshotExchange snapshots = gameManager.getSnapshots();
+        while (running) {
+            long frameStart = System.nanoTime();
+            RenderSnapshot snapshot = snapshots.acquire();
+            double alpha = 1.0;
+            if (snapshot != null && !paused) {
+                alpha = Math.min(1.0, (frameStart - snapshot.publishedNanos) / (double) FIXED_STEP_NANOS);
+            }
+
+            render(strategy, snapshot, alpha);
+
+            long sleep = FRAME_NANOS - (System.nanoTime() - frameStart);
+            if (sleep > 0) {
+                LockSupport.parkNanos(sleep);
+            }
+        }
+    }
+
+    private void render(BufferStrategy strategy, RenderSnapshot snapshot, double alpha) {
+        do {
+            do {
+                Graphics2D g2d = (Graphics2D) strategy.getDrawGraphics();
+                try {
+                    drawFrame(g2d, snapshot, alpha);
+                } finally {
+                    g2d.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    private void drawFrame(Graphics2D g2d, RenderSnapshot snapshot, double alpha) {
+        g2d.setColor(BACKGROUND);
+        g2d.fillRect(0, 0, getWidth(), getHeight());
+        if (snapshot == null) return;
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
-        gameManager.draw(g2d, getWidth(), getHeight());
+        renderer.draw(g2d, snapshot, alpha, getWidth(), getHeight());
 
         if (paused) {
             g2d.setColor(new Color(0, 0, 0, 150));
@@ -52,7 +151,7 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener, Mo
             g2d.drawString(text, (getWidth() - textWidth) / 2, getHeight() / 2);
         }
 
-        if (gameManager.isGameOver()) {
+        if (snapshot.isGameOver()) {
             g2d.setColor(new Color(0, 0, 0, 200));
             g2d.fillRect(0, 0, getWidth(), getHeight());
 
@@ -65,34 +164,45 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener, Mo
 
             g2d.setColor(Color.WHITE);
             g2d.setFont(new Font("Arial", Font.BOLD, 24));
-            String score = "Счёт: " + gameManager.getScore();
+            String score = "Счёт: " + snapshot.getScore();
             g2d.drawString(score,
                     getWidth() / 2 - g2d.getFontMetrics().stringWidth(score) / 2,
                     getHeight() / 2 + 20);
         }
     }
 
-    @Override
-    public void actionPerformed(ActionEvent e) {
-        long currentTime = System.nanoTime();
-        double deltaTime = (currentTime - lastUpdateTime) / 1_000_000_000.0;
-        lastUpdateTime = currentTime;
-
-        if (!paused) {
-            gameManager.update(deltaTime, getWidth(), getHeight());
+    // Разбор ввода в потоке цикла, на границе шагов
+    private void handleInput(int type, int code, int x, int y) {
+        switch (type) {
+            case InputQueue.KEY_PRESSED:
+                handleKeyPressed(code);
+                break;
+            case InputQueue.KEY_RELEASED:
+                handleKeyReleased(code);
+                break;
+            case InputQueue.MOUSE_PRESSED:
+                if (code == MouseEvent.BUTTON1) {
+                    gameManager.setShooting(true);
+                }
+                break;
+            case InputQueue.MOUSE_RELEASED:
+                if (code == MouseEvent.BUTTON1) {
+                    gameManager.setShooting(false);
+                }
+                break;
+            case InputQueue.MOUSE_MOVED:
+                gameManager.setMousePosition(x, y);
+                break;
         }
-
-        repaint();
     }
 
-    @Override
-    public void keyPressed(KeyEvent e) {
-        int keyCode = e.getKeyCode();
+    private void handleKeyPressed(int keyCode) {
         if (keyCode == KeyEvent.VK_P) {
             if (!pPressed) {
                 paused = !paused;
                 if (!paused) {
                     lastUpdateTime = System.nanoTime();
+                    accumulator = 0;
                 }
                 pPressed = true;
             }
@@ -122,9 +232,7 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener, Mo
         gameManager.setMovementKey(keyCode, true);
     }
 
-    @Override
-    public void keyReleased(KeyEvent e) {
-        int keyCode = e.getKeyCode();
+    private void handleKeyReleased(int keyCode) {
         if (keyCode == KeyEvent.VK_P) {
             pPressed = false;
             return;
@@ -144,31 +252,39 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener, Mo
         gameManager.setMovementKey(keyCode, false);
     }
 
+    // Обработчики AWT только кладут событие в очередь
+
+    @Override
+    public void keyPressed(KeyEvent e) {
+        input.offer(InputQueue.KEY_PRESSED, e.getKeyCode(), 0, 0);
+    }
+
+    @Override
+    public void keyReleased(KeyEvent e) {
+        input.offer(InputQueue.KEY_RELEASED, e.getKeyCode(), 0, 0);
+    }
+
     @Override
     public void keyTyped(KeyEvent e) {}
 
     @Override
     public void mousePressed(MouseEvent e) {
-        if (e.getButton() == MouseEvent.BUTTON1) {
-            gameManager.setShooting(true);
-        }
+        input.offer(InputQueue.MOUSE_PRESSED, e.getButton(), e.getX(), e.getY());
     }
 
     @Override
     public void mouseReleased(MouseEvent e) {
-        if (e.getButton() == MouseEvent.BUTTON1) {
-            gameManager.setShooting(false);
-        }
+        input.offer(InputQueue.MOUSE_RELEASED, e.getButton(), e.getX(), e.getY());
     }
 
     @Override
     public void mouseMoved(MouseEvent e) {
-        gameManager.setMousePosition(e.getX(), e.getY());
+        input.offerMouseMove(e.getX(), e.getY());
     }
 
     @Override
     public void mouseDragged(MouseEvent e) {
-        gameManager.setMousePosition(e.getX(), e.getY());
+        input.offerMouseMove(e.getX(), e.getY());
     }
 
     @Override
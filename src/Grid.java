@@ -1,27 +1,59 @@
 import java.util.*;
 
 public class Grid {
-    private GridCell[][] cells;
     private int rows, cols;
     private double cellSize;
-    private GridCell distanceTarget;
-    private boolean distanceFieldReady = false;
+    private DistanceFieldWorker distanceWorker;
+    private ClusterGraph clusterGraph;
+    private Pathfinder.SearchMode searchMode = Pathfinder.SearchMode.AUTO;
+    private int blockedCells = 0;
+    private double maxObstacleHalfSize = 0;
+    private final ObstacleField obstacleField;
+
+    // Непроходимость в битовых строках (основное хранилище) и в транспонированном виде по столбцам
+    private final int rowWords, colWords;
+    private final long[] blockedRows;
+    private final long[] blockedCols;
+
+    // Кэш видимости по паре ячеек; записи со старой версией сетки считаются недействительными
+    private static final int LOS_CACHE_SIZE = 1 << 14;
+    private int version = 1;
+    private final long[] losCacheKeys = new long[LOS_CACHE_SIZE];
+    private final int[] losCacheVersions = new int[LOS_CACHE_SIZE];
+    private final boolean[] losCacheValues = new boolean[LOS_CACHE_SIZE];
+
+    // Препятствия хранятся номерами в реестре (0 - нет препятствия)
+    private final List<Obstacle> obstacleRegistry = new ArrayList<>();
+    private final Map<Obstacle, Integer> obstacleIdByObstacle = new IdentityHashMap<>();
+    private final ArrayDeque<Integer> freeObstacleIds = new ArrayDeque<>();
+
+    // Списки препятствий по ячейкам: узлы в общем пуле, cellHeads - первый узел ячейки (-1 если пусто).
+    // Большой ящик попадает во все ячейки, которые накрывает; ячейка непроходима, пока её список не пуст
+    private final int[] cellHeads;
+    private int[] nodeNext = new int[256];
+    private int[] nodeObstacle = new int[256];
+    private int nodeCount = 0;
+    private int freeNode = -1;
+
+    // Отметки уже встреченных препятствий в текущем запросе
+    private int[] obstacleStamps = new int[16];
+    private int queryStamp = 0;
+    private final List<Obstacle> queryScratch = new ArrayList<>();
 
     public Grid(int screenWidth, int screenHeight, double cellSize) {
         this.cellSize = cellSize;
         this.cols = (int) Math.ceil(screenWidth / cellSize);
         this.rows = (int) Math.ceil(screenHeight / cellSize);
 
-        cells = new GridCell[rows][cols];
-
-        // Инициализация всех ячеек
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                double worldX = c * cellSize + cellSize / 2;
-                double worldY = r * cellSize + cellSize / 2;
-                cells[r][c] = new GridCell(r, c, worldX, worldY);
-            }
-        }
+        distanceWorker = new DistanceFieldWorker(rows, cols);
+        rowWords = (cols + 63) >> 6;
+        colWords = (rows + 63) >> 6;
+        blockedRows = new long[rows * rowWords];
+        blockedCols = new long[cols * colWords];
+        cellHeads = new int[rows * cols];
+        Arrays.fill(cellHeads, -1);
+        obstacleRegistry.add(null);
+        obstacleField = new ObstacleField(this);
     }
 
     public GridCell getCellAtWorldPos(double x, double y) {
@@ -29,33 +61,58 @@ public class Grid {
         int row = (int)(y / cellSize);
 
         if (row >= 0 && row < rows && col >= 0 && col < cols) {
-            return cells[row][col];
+            return new GridCell(row, col, this);
         }
         return null;
     }
 
     public GridCell getCellAtGridPos(int row, int col) {
         if (row >= 0 && row < rows && col >= 0 && col < cols) {
-            return cells[row][col];
+            return new GridCell(row, col, this);
         }
         return null;
     }
 
+    public boolean isWalkable(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols
+                && (blockedRows[row * rowWords + (col >> 6)] & (1L << col)) == 0;
+    }
+
+    public Obstacle getObstacle(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) return null;
+        int node = cellHeads[row * cols + col];
+        return node >= 0 ? obstacleRegistry.get(nodeObstacle[node]) : null;
+    }
+
     public void setObstacle(Obstacle obstacle) {
         int minCol = (int) Math.floor((obstacle.getPosition().x - obstacle.getWidth() / 2) / cellSize);
         int maxCol = (int) Math.floor((obstacle.getPosition().x + obstacle.getWidth() / 2) / cellSize);
         int minRow = (int) Math.floor((obstacle.getPosition().y - obstacle.getHeight() / 2) / cellSize);
         int maxRow = (int) Math.floor((obstacle.getPosition().y + obstacle.getHeight() / 2) / cellSize);
 
-        for (int r = minRow; r <= maxRow; r++) {
-            for (int c = minCol; c <= maxCol; c++) {
-                GridCell cell = getCellAtGridPos(r, c);
-                if (cell != null) {
-                    cell.walkable = false;
-                    cell.obstacle = obstacle;
+        if (obstacleIdByObstacle.containsKey(obstacle)) return;
+        int id = registerObstacle(obstacle);
+        maxObstacleHalfSize = Math.max(maxObstacleHalfSize,
+                Math.max(obstacle.getWidth(), obstacle.getHeight()) / 2);
+        obstacleField.addObstacle(obstacle, id);
+        for (int r = Math.max(minRow, 0); r <= Math.min(maxRow, rows - 1); r++) {
+            for (int c = Math.max(minCol, 0); c <= Math.min(maxCol, cols - 1); c++) {
+                int cell = r * cols + c;
+                if (cellHeads[cell] < 0) {
+                    blockedCells++;
+                    distanceWorker.setWalkable(r, c, false);
+                    setBlockedBit(r, c, true);
                 }
+                int node = allocateNode();
+                nodeObstacle[node] = id;
+                nodeNext[node] = cellHeads[cell];
+                cellHeads[cell] = node;
             }
         }
+        version++;
+        if (clusterGraph != null) {
+            clusterGraph.markDirty(minRow, minCol, maxRow, maxCol);
+        }
     }
 
     public void removeObstacle(Obstacle obstacle) {
@@ -64,17 +121,216 @@ public class Grid {
         int minRow = (int) Math.floor((obstacle.getPosition().y - obstacle.getHeight() / 2) / cellSize);
         int maxRow = (int) Math.floor((obstacle.getPosition().y + obstacle.getHeight() / 2) / cellSize);
 
+        Integer id = obstacleIdByObstacle.remove(obstacle);
+        if (id == null) return;
+        for (int r = Math.max(minRow, 0); r <= Math.min(maxRow, rows - 1); r++) {
+            for (int c = Math.max(minCol, 0); c <= Math.min(maxCol, cols - 1); c++) {
+                int cell = r * cols + c;
+                unlinkObstacle(cell, id);
+                if (cellHeads[cell] < 0 && !isWalkable(r, c)) {
+                    blockedCells--;
+                    distanceWorker.setWalkable(r, c, true);
+                    setBlockedBit(r, c, false);
+                }
+            }
+        }
+        obstacleRegistry.set(id, null);
+        freeObstacleIds.push(id);
+        obstacleField.removeObstacle(obstacle);
+        version++;
+        if (clusterGraph != null) {
+            clusterGraph.markDirty(minRow, minCol, maxRow, maxCol);
+        }
+    }
+
+    // Активные препятствия, чьи ячейки пересекают квадрат вокруг круга; точную проверку делает вызывающий
+    public void queryObstacles(double x, double y, double radius, List<Obstacle> out) {
+        queryObstaclesInRect(x - radius, y - radius, x + radius, y + radius, out);
+    }
+
+    public void queryObstaclesInRect(double minX, double minY, double maxX, double maxY, List<Obstacle> out) {
+        out.clear();
+        // Вне сетки запрос прижимается к крайним ячейкам: там лежат выступающие за край ящики
+        int minRow = clamp((int) Math.floor(minY / cellSize), rows);
+        int maxRow = clamp((int) Math.floor(maxY / cellSize), rows);
+        int minCol = clamp((int) Math.floor(minX / cellSize), cols);
+        int maxCol = clamp((int) Math.floor(maxX / cellSize), cols);
+
+        queryStamp++;
+        if (obstacleStamps.length < obstacleRegistry.size()) {
+            obstacleStamps = Arrays.copyOf(obstacleStamps, obstacleRegistry.size() * 2);
+        }
         for (int r = minRow; r <= maxRow; r++) {
             for (int c = minCol; c <= maxCol; c++) {
-                GridCell cell = getCellAtGridPos(r, c);
-                if (cell != null && cell.obstacle == obstacle) {
-                    cell.walkable = true;
-                    cell.obstacle = null;
+                for (int node = cellHeads[r * cols + c]; node >= 0; node = nodeNext[node]) {
+                    int id = nodeObstacle[node];
+                    if (obstacleStamps[id] == queryStamp) continue;
+                    obstacleStamps[id] = queryStamp;
+                    Obstacle obstacle = obstacleRegistry.get(id);
+                    if (obstacle.isActive()) {
+                        out.add(obstacle);
+                    }
                 }
             }
         }
     }
 
+    int getObstacleId(Obstacle obstacle) {
+        Integer id = obstacleIdByObstacle.get(obstacle);
+        return id != null ? id : 0;
+    }
+
+    Obstacle getRegisteredObstacle(int id) {
+        return obstacleRegistry.get(id);
+    }
+
+    public ObstacleField getObstacleField() {
+        return obstacleField;
+    }
+
+    // Половина наибольшей стороны среди когда-либо добавленных ящиков (не уменьшается при удалении)
+    public double getMaxObstacleHalfSize() {
+        return maxObstacleHalfSize;
+    }
+
+    // Первое препятствие, с которым пересекается круг, или null
+    public Obstacle findCollidingObstacle(double x, double y, double radius) {
+        queryObstacles(x, y, radius, queryScratch);
+        for (int i = 0; i < queryScratch.size(); i++) {
+            Obstacle obstacle = queryScratch.get(i);
+            if (obstacle.collidesWithCircle(x, y, radius)) {
+                return obstacle;
+            }
+        }
+        return null;
+    }
+
+    // Самое раннее касание препятствия кругом, движущимся из (x0, y0) в (x1, y1).
+    // Центр проходит по ячейкам методом DDA; в каждой смотрим соседей в пределах радиуса.
+    // Ячейки идут по времени входа, поэтому после найденного касания дальше можно не идти
+    public void sweepObstacles(double x0, double y0, double x1, double y1, double radius, SweepHit hit) {
+        int reach = (int) Math.ceil(radius / cellSize);
+        queryStamp++;
+        if (obstacleStamps.length < obstacleRegistry.size()) {
+            obstacleStamps = Arrays.copyOf(obstacleStamps, obstacleRegistry.size() * 2);
+        }
+
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        int col = (int) Math.floor(x0 / cellSize);
+        int row = (int) Math.floor(y0 / cellSize);
+        int endCol = (int) Math.floor(x1 / cellSize);
+        int endRow = (int) Math.floor(y1 / cellSize);
+        int stepCol = dx > 0 ? 1 : -1;
+        int stepRow = dy > 0 ? 1 : -1;
+        double deltaX = dx != 0 ? cellSize / Math.abs(dx) : Double.POSITIVE_INFINITY;
+        double deltaY = dy != 0 ? cellSize / Math.abs(dy) : Double.POSITIVE_INFINITY;
+        double nextX = dx > 0 ? ((col + 1) * cellSize - x0) / dx
+                : dx < 0 ? (x0 - col * cellSize) / -dx : Double.POSITIVE_INFINITY;
+        double nextY = dy > 0 ? ((row + 1) * cellSize - y0) / dy
+                : dy < 0 ? (y0 - row * cellSize) / -dy : Double.POSITIVE_INFINITY;
+
+        double entry = 0;
+        while (entry <= hit.time && entry <= 1) {
+            int minRow = clamp(row - reach, rows), maxRow = clamp(row + reach, rows);
+            int minCol = clamp(col - reach, cols), maxCol = clamp(col + reach, cols);
+            for (int r = minRow; r <= maxRow; r++) {
+                for (int c = minCol; c <= maxCol; c++) {
+                    for (int node = cellHeads[r * cols + c]; node >= 0; node = nodeNext[node]) {
+                        int id = nodeObstacle[node];
+                        if (obstacleStamps[id] == queryStamp) continue;
+                        obstacleStamps[id] = queryStamp;
+                        Obstacle obstacle = obstacleRegistry.get(id);
+                        double t = obstacle.sweepCircle(x0, y0, x1, y1, radius);
+                        if (t >= 0 && t < hit.time) {
+                            hit.time = t;
+                            hit.obstacle = obstacle;
+                            hit.enemy = null;
+                        }
+                    }
+                }
+            }
+
+            if (row == endRow && col == endCol) break;
+            if (nextX < nextY) {
+                entry = nextX;
+                nextX += deltaX;
+                col += stepCol;
+            } else {
+                entry = nextY;
+                nextY += deltaY;
+                row += stepRow;
+            }
+        }
+    }
+
+    private static int clamp(int value, int size) {
+        return Math.max(0, Math.min(size - 1, value));
+    }
+
+    private int allocateNode() {
+        if (freeNode >= 0) {
+            int node = freeNode;
+            freeNode = nodeNext[node];
+            return node;
+        }
+        if (nodeCount == nodeNext.length) {
+            nodeNext = Arrays.copyOf(nodeNext, nodeCount * 2);
+            nodeObstacle = Arrays.copyOf(nodeObstacle, nodeCount * 2);
+        }
+        return nodeCount++;
+    }
+
+    private void unlinkObstacle(int cell, int id) {
+        int previous = -1;
+        for (int node = cellHeads[cell]; node >= 0; node = nodeNext[node]) {
+            if (nodeObstacle[node] != id) {
+                previous = node;
+                continue;
+            }
+            if (previous < 0) {
+                cellHeads[cell] = nodeNext[node];
+            } else {
+                nodeNext[previous] = nodeNext[node];
+            }
+            nodeNext[node] = freeNode;
+            freeNode = node;
+            return;
+        }
+    }
+
+    private int registerObstacle(Obstacle obstacle) {
+        int id;
+        if (!freeObstacleIds.isEmpty()) {
+            id = freeObstacleIds.pop();
+            obstacleRegistry.set(id, obstacle);
+        } else {
+            id = obstacleRegistry.size();
+            obstacleRegistry.add(obstacle);
+        }
+        obstacleIdByObstacle.put(obstacle, id);
+        return id;
+    }
+
+    public Pathfinder.SearchMode getSearchMode() {
+        return searchMode;
+    }
+
+    public void setSearchMode(Pathfinder.SearchMode searchMode) {
+        this.searchMode = searchMode;
+    }
+
+    public double getBlockedRatio() {
+        return blockedCells / (double) (rows * cols);
+    }
+
+    public ClusterGraph getClusterGraph() {
+        if (clusterGraph == null) {
+            clusterGraph = new ClusterGraph(this);
+        }
+        return clusterGraph;
+    }
+
     public List<GridCell> getNeighbors(GridCell cell) {
         List<GridCell> neighbors = new ArrayList<>();
 
@@ -85,11 +341,8 @@ public class Grid {
                 int newRow = cell.row + dr;
                 int newCol = cell.col + dc;
 
-                if (newRow >= 0 && newRow < rows && newCol >= 0 && newCol < cols) {
-                    GridCell neighbor = cells[newRow][newCol];
-                    if (neighbor.walkable) {
-                        neighbors.add(neighbor);
-                    }
+                if (isWalkable(newRow, newCol)) {
+                    neighbors.add(new GridCell(newRow, newCol, this));
                 }
             }
         }
@@ -98,90 +351,139 @@ public class Grid {
 
     public boolean hasLineOfSight(GridCell from, GridCell to) {
         if (from == null || to == null) return false;
-        int x0 = from.col;
-        int y0 = from.row;
-        int x1 = to.col;
-        int y1 = to.row;
+        return hasLineOfSight(from.row, from.col, to.row, to.col);
+    }
+
+    public boolean hasLineOfSight(int fromRow, int fromCol, int toRow, int toCol) {
+        long key = (long) (fromRow * cols + fromCol) * (rows * cols) + (toRow * cols + toCol);
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 50) & (LOS_CACHE_SIZE - 1);
+        if (losCacheVersions[slot] == version && losCacheKeys[slot] == key) {
+            return losCacheValues[slot];
+        }
 
+        boolean result = traceLineOfSight(fromCol, fromRow, toCol, toRow);
+        losCacheKeys[slot] = key;
+        losCacheVersions[slot] = version;
+        losCacheValues[slot] = result;
+        return result;
+    }
+
+    // Брезенхем от (x0, y0) до (x1, y1); ячейки собираются в отрезки вдоль основной оси
+    // и проверяются по битовым маскам. Непроходимая конечная ячейка видимость не закрывает
+    private boolean traceLineOfSight(int x0, int y0, int x1, int y1) {
         int dx = Math.abs(x1 - x0);
         int dy = Math.abs(y1 - y0);
         int sx = x0 < x1 ? 1 : -1;
         int sy = y0 < y1 ? 1 : -1;
         int err = dx - dy;
+        boolean steep = dy > dx;
 
         int x = x0;
         int y = y0;
-        while (true) {
-            GridCell cell = getCellAtGridPos(y, x);
-            if (cell != null && !cell.walkable) {
-                if (cell.equals(to)) {
-                    return true;
-                }
-                return false;
-            }
-            if (x == x1 && y == y1) {
-                break;
-            }
+        int runStart = steep ? y : x;
+        while (x != x1 || y != y1) {
             int e2 = 2 * err;
+            int nx = x;
+            int ny = y;
             if (e2 > -dy) {
                 err -= dy;
-                x += sx;
+                nx += sx;
             }
             if (e2 < dx) {
                 err += dx;
-                y += sy;
+                ny += sy;
             }
+
+            boolean minorChanged = steep ? nx != x : ny != y;
+            if (minorChanged) {
+                if (isRunBlocked(steep, steep ? x : y, runStart, steep ? y : x)) {
+                    return false;
+                }
+                runStart = steep ? ny : nx;
+            }
+            x = nx;
+            y = ny;
+        }
+
+        // Последний отрезок без самой конечной ячейки
+        int end = steep ? y1 - sy : x1 - sx;
+        int start = runStart;
+        if ((steep ? sy : sx) > 0 ? end >= start : end <= start) {
+            return !isRunBlocked(steep, steep ? x1 : y1, start, end);
         }
         return true;
     }
 
-    public void updateDistanceField(Vector2D target) {
-        distanceFieldReady = false;
-        distanceTarget = getCellAtWorldPos(target.x, target.y);
-        if (distanceTarget == null || !distanceTarget.walkable) {
-            return;
+    private boolean isRunBlocked(boolean alongColumn, int line, int from, int to) {
+        int lo = Math.min(from, to);
+        int hi = Math.max(from, to);
+        long[] bits = alongColumn ? blockedCols : blockedRows;
+        int base = line * (alongColumn ? colWords : rowWords);
+        int firstWord = lo >> 6;
+        int lastWord = hi >> 6;
+        for (int w = firstWord; w <= lastWord; w++) {
+            long mask = -1L;
+            if (w == firstWord) mask &= -1L << (lo & 63);
+            if (w == lastWord) mask &= -1L >>> (63 - (hi & 63));
+            if ((bits[base + w] & mask) != 0) {
+                return true;
+            }
         }
+        return false;
+    }
 
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                GridCell cell = cells[r][c];
-                cell.distance = Double.POSITIVE_INFINITY;
-            }
+    private void setBlockedBit(int row, int col, boolean blocked) {
+        int rowSlot = row * rowWords + (col >> 6);
+        int colSlot = col * colWords + (row >> 6);
+        if (blocked) {
+            blockedRows[rowSlot] |= 1L << col;
+            blockedCols[colSlot] |= 1L << row;
+        } else {
+            blockedRows[rowSlot] &= ~(1L << col);
+            blockedCols[colSlot] &= ~(1L << row);
         }
+    }
 
-        PriorityQueue<GridCell> open = new PriorityQueue<>(Comparator.comparingDouble(a -> a.distance));
-        distanceTarget.distance = 0;
-        open.add(distanceTarget);
+    public int getVersion() {
+        return version;
+    }
 
-        while (!open.isEmpty()) {
-            GridCell current = open.poll();
-            double currentDistance = current.distance;
+    public void updateDistanceField(Vector2D target) {
+        // Цель за пределами сетки worker сам превращает в отсутствие цели
+        distanceWorker.requestUpdate((int) (target.y / cellSize), (int) (target.x / cellSize));
+    }
 
-            for (GridCell neighbor : getNeighbors(current)) {
-                double stepCost = getStepCost(current, neighbor);
-                double newDist = currentDistance + stepCost;
-                if (newDist < neighbor.distance) {
-                    neighbor.distance = newDist;
-                    open.add(neighbor);
-                }
-            }
-        }
+    // Берёт свежий снимок поля расстояний на весь тик: до следующего вызова acquireDistanceSnapshot
+    // getDistanceSnapshot возвращает один и тот же снимок, и фоновый поток его не трогает
+    public DistanceSnapshot acquireDistanceSnapshot() {
+        return distanceWorker.acquireSnapshot();
+    }
 
-        distanceFieldReady = true;
+    public DistanceSnapshot getDistanceSnapshot() {
+        return distanceWorker.getSnapshot();
+    }
+
+    public double getDistance(int row, int col) {
+        DistanceSnapshot snapshot = distanceWorker.getSnapshot();
+        return snapshot != null ? snapshot.getDistance(row, col) : Double.POSITIVE_INFINITY;
     }
 
     public List<GridCell> buildPathFrom(GridCell start, int maxSteps) {
+        return buildPathFrom(distanceWorker.getSnapshot(), start, maxSteps);
+    }
+
+    public List<GridCell> buildPathFrom(DistanceSnapshot snapshot, GridCell start, int maxSteps) {
         List<GridCell> path = new ArrayList<>();
-        if (!distanceFieldReady || distanceTarget == null || start == null) {
+        if (snapshot == null || !snapshot.isReady() || start == null) {
             return path;
         }
         GridCell current = start;
         for (int i = 0; i < maxSteps; i++) {
-            if (current.equals(distanceTarget)) {
+            if (snapshot.isTarget(current.row, current.col)) {
                 break;
             }
-            GridCell next = getBestNeighbor(current);
-            if (next == null || next.distance >= current.distance) {
+            GridCell next = getBestNeighbor(snapshot, current);
+            if (next == null || snapshot.getDistance(next.row, next.col) >= snapshot.getDistance(current.row, current.col)) {
                 break;
             }
             path.add(next);
@@ -190,29 +492,66 @@ public class Grid {
         return path;
     }
 
-    private GridCell getBestNeighbor(GridCell cell) {
+    private GridCell getBestNeighbor(DistanceSnapshot snapshot, GridCell cell) {
         GridCell best = null;
         double bestDistance = Double.POSITIVE_INFINITY;
-        for (GridCell neighbor : getNeighbors(cell)) {
-            if (neighbor.distance < bestDistance) {
-                bestDistance = neighbor.distance;
-                best = neighbor;
+        for (int dr = -1; dr <= 1; dr++) {
+            for (int dc = -1; dc <= 1; dc++) {
+                if (dr == 0 && dc == 0) continue;
+                double distance = snapshot.getDistance(cell.row + dr, cell.col + dc);
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    best = new GridCell(cell.row + dr, cell.col + dc, this);
+                }
             }
         }
         return best;
     }
 
-    private double getStepCost(GridCell a, GridCell b) {
-        int dr = Math.abs(a.row - b.row);
-        int dc = Math.abs(a.col - b.col);
-        if (dr + dc == 1) {
-            return 1.0;
+    // Направление движения по полю потока в точке мира; false если поле здесь не ведёт (цель, стена, вне сетки)
+    public boolean sampleFlow(DistanceSnapshot snapshot, double x, double y, boolean smooth, Vector2D out) {
+        if (snapshot == null || !snapshot.isReady()) return false;
+        int row = (int) Math.floor(y / cellSize);
+        int col = (int) Math.floor(x / cellSize);
+        if (!snapshot.hasFlow(row, col)) return false;
+
+        double flowX = snapshot.getFlowX(row, col);
+        double flowY = snapshot.getFlowY(row, col);
+
+        if (smooth) {
+            // Билинейное смешивание по четырём ближайшим центрам ячеек
+            double u = x / cellSize - 0.5;
+            double v = y / cellSize - 0.5;
+            int c0 = (int) Math.floor(u);
+            int r0 = (int) Math.floor(v);
+            double fu = u - c0;
+            double fv = v - r0;
+
+            double sumX = 0;
+            double sumY = 0;
+            for (int i = 0; i < 4; i++) {
+                int r = r0 + (i >> 1);
+                int c = c0 + (i & 1);
+                if (!snapshot.hasFlow(r, c)) continue;
+                double weight = ((i & 1) != 0 ? fu : 1 - fu) * ((i >> 1) != 0 ? fv : 1 - fv);
+                sumX += snapshot.getFlowX(r, c) * weight;
+                sumY += snapshot.getFlowY(r, c) * weight;
+            }
+            double length = Math.sqrt(sumX * sumX + sumY * sumY);
+            if (length > 1e-3) {
+                flowX = sumX / length;
+                flowY = sumY / length;
+            }
         }
-        return Math.sqrt(2);
+
+        out.x = flowX;
+        out.y = flowY;
+        return true;
     }
 
     public boolean hasDistanceField() {
-        return distanceFieldReady;
+        DistanceSnapshot snapshot = distanceWorker.getSnapshot();
+        return snapshot != null && snapshot.isReady();
     }
 
     public int getRows() { return rows; }
@@ -1,26 +1,33 @@
-import java.util.Objects;
-
+// Лёгкое представление ячейки: сами данные хранятся в массивах Grid
 public class GridCell {
-    public int row, col;
-    public boolean walkable;
-    public double worldX, worldY;
-    public Obstacle obstacle;
+    public final int row, col;
 
-    // Для A*
-    public GridCell parent;
-    public double gCost, hCost;
-    public double distance = Double.POSITIVE_INFINITY;
+    private final Grid grid;
 
-    public GridCell(int row, int col, double worldX, double worldY) {
+    public GridCell(int row, int col, Grid grid) {
         this.row = row;
         this.col = col;
-        this.walkable = true;
-        this.worldX = worldX;
-        this.worldY = worldY;
+        this.grid = grid;
+    }
+
+    public boolean isWalkable() {
+        return grid.isWalkable(row, col);
+    }
+
+    public Obstacle getObstacle() {
+        return grid.getObstacle(row, col);
+    }
+
+    public double getWorldX() {
+        return (col + 0.5) * grid.getCellSize();
+    }
+
+    public double getWorldY() {
+        return (row + 0.5) * grid.getCellSize();
     }
 
-    public double fCost() {
-        return gCost + hCost;
+    public double getDistance() {
+        return grid.getDistance(row, col);
     }
 
     @Override
@@ -33,6 +40,6 @@ public class GridCell {
 
     @Override
     public int hashCode() {
-        return Objects.hash(row, col);
+        return row * 31 + col;
     }
 }
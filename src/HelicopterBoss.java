@@ -8,6 +8,8 @@ public class HelicopterBoss implements Boss {
     }
 
     private Vector2D position;
+    // Позиция на предыдущем шаге симуляции, для интерполяции при отрисовке
+    private final Vector2D previousPosition = new Vector2D();
     private double radius = 28;
     private int health;
     private int maxHealth;
@@ -27,6 +29,7 @@ public class HelicopterBoss implements Boss {
 
     public HelicopterBoss(double x, double y, int maxHealth) {
         this.position = new Vector2D(x, y);
+        storePreviousPosition();
         this.maxHealth = maxHealth;
         this.health = maxHealth;
     }
@@ -93,12 +96,11 @@ public class HelicopterBoss implements Boss {
         double spread = (Math.random() - 0.5) * 30;
         double targetX = playerPos.x + spread;
         double targetY = playerPos.y + (Math.random() - 0.5) * 20;
-        BossProjectile bullet = BossProjectile.createBullet(
+        game.getProjectiles().spawnBossBullet(
                 position.x, position.y,
                 targetX, targetY,
                 8.5, 8, 2.5
         );
-        game.addBossProjectile(bullet);
         SoundManager.playBossShot();
     }
 
@@ -113,16 +115,26 @@ public class HelicopterBoss implements Boss {
     }
 
     @Override
-    public void draw(Graphics2D g2d, Camera camera) {
-        if (!isAlive()) return;
+    public void storePreviousPosition() {
+        previousPosition.x = position.x;
+        previousPosition.y = position.y;
+    }
 
-        double ox = camera.getOffsetX();
-        double oy = camera.getOffsetY();
+    @Override
+    public void writeTo(RenderSnapshot snapshot) {
+        if (!isAlive()) return;
+        double healthRatio = maxHealth > 0 ? (health / (double) maxHealth) : 0;
+        snapshot.setBoss(RenderSnapshot.BOSS_HELICOPTER, previousPosition.x, previousPosition.y, position.x, position.y,
+                radius, healthRatio, false, getName());
+    }
 
+    // Отрисовка по данным снимка; px, py - интерполированная позиция в мире
+    public static void draw(Graphics2D g2d, double px, double py, double radius, double healthRatio,
+                            double ox, double oy) {
         double bodyW = radius * 2.2;
         double bodyH = radius * 1.2;
-        double bodyX = position.x - bodyW / 2 - ox;
-        double bodyY = position.y - bodyH / 2 - oy;
+        double bodyX = px - bodyW / 2 - ox;
+        double bodyY = py - bodyH / 2 - oy;
 
         double cockpitW = bodyW * 0.55;
         double cockpitH = bodyH * 0.75;
@@ -131,8 +143,8 @@ public class HelicopterBoss implements Boss {
 
         double tailW = bodyW * 1.4;
         double tailH = bodyH * 0.25;
-        double tailX = position.x + bodyW / 2 - ox;
-        double tailY = position.y - tailH / 2 - oy;
+        double tailX = px + bodyW / 2 - ox;
+        double tailY = py - tailH / 2 - oy;
 
         g2d.setColor(new Color(70, 110, 170));
         g2d.fillRoundRect((int) bodyX, (int) bodyY, (int) bodyW, (int) bodyH, 16, 16);
@@ -145,11 +157,11 @@ public class HelicopterBoss implements Boss {
 
         g2d.setStroke(new BasicStroke(3));
         g2d.setColor(new Color(40, 60, 120));
-        int rotorY = (int) (position.y - bodyH / 2 - 8 - oy);
-        g2d.drawLine((int) (position.x - bodyW * 0.9 - ox), rotorY,
-                (int) (position.x + bodyW * 0.9 - ox), rotorY);
-        g2d.drawLine((int) (position.x - ox), rotorY - 6,
-                (int) (position.x - ox), rotorY + 6);
+        int rotorY = (int) (py - bodyH / 2 - 8 - oy);
+        g2d.drawLine((int) (px - bodyW * 0.9 - ox), rotorY,
+                (int) (px + bodyW * 0.9 - ox), rotorY);
+        g2d.drawLine((int) (px - ox), rotorY - 6,
+                (int) (px - ox), rotorY + 6);
 
         int tailRotorX = (int) (tailX + tailW - 2);
         int tailRotorY = (int) (tailY + tailH / 2);
@@ -157,20 +169,20 @@ public class HelicopterBoss implements Boss {
         g2d.drawLine(tailRotorX, tailRotorY - 6, tailRotorX, tailRotorY + 6);
 
         g2d.setStroke(new BasicStroke(2));
-        g2d.drawLine((int) (position.x - bodyW * 0.5 - ox), (int) (position.y + bodyH / 2 - oy),
-                (int) (position.x - bodyW * 0.2 - ox), (int) (position.y + bodyH / 2 + 8 - oy));
-        g2d.drawLine((int) (position.x + bodyW * 0.2 - ox), (int) (position.y + bodyH / 2 - oy),
-                (int) (position.x + bodyW * 0.5 - ox), (int) (position.y + bodyH / 2 + 8 - oy));
+        g2d.drawLine((int) (px - bodyW * 0.5 - ox), (int) (py + bodyH / 2 - oy),
+                (int) (px - bodyW * 0.2 - ox), (int) (py + bodyH / 2 + 8 - oy));
+        g2d.drawLine((int) (px + bodyW * 0.2 - ox), (int) (py + bodyH / 2 - oy),
+                (int) (px + bodyW * 0.5 - ox), (int) (py + bodyH / 2 + 8 - oy));
 
-        drawHealthBar(g2d, camera);
+        drawHealthBar(g2d, px, py, radius, healthRatio, ox, oy);
     }
 
-    private void drawHealthBar(Graphics2D g2d, Camera camera) {
+    private static void drawHealthBar(Graphics2D g2d, double px, double py, double radius, double healthRatio,
+                                      double ox, double oy) {
         double barWidth = 80;
         double barHeight = 8;
-        double healthRatio = maxHealth > 0 ? (health / (double) maxHealth) : 0;
-        double x = position.x - barWidth / 2 - camera.getOffsetX();
-        double y = position.y - radius - 16 - camera.getOffsetY();
+        double x = px - barWidth / 2 - ox;
+        double y = py - radius - 16 - oy;
 
         g2d.setColor(new Color(0, 0, 0, 150));
         g2d.fillRect((int) x, (int) y, (int) barWidth, (int) barHeight);
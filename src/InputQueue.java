@@ -0,0 +1,74 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Очередь ввода без блокировок: один писатель (поток событий AWT), один читатель (игровой цикл).
+// События лежат в параллельных массивах кольцевого буфера; при переполнении новые отбрасываются.
+// Движения мыши в кольцо не попадают: хранится только последняя позиция, поэтому поток движений
+// во время подвисания не может вытеснить отпускание клавиши или кнопки
+public class InputQueue {
+    public static final int KEY_PRESSED = 0;
+    public static final int KEY_RELEASED = 1;
+    public static final int MOUSE_PRESSED = 2;
+    public static final int MOUSE_RELEASED = 3;
+    public static final int MOUSE_MOVED = 4;
+
+    public interface Handler {
+        void handle(int type, int code, int x, int y);
+    }
+
+    private static final int CAPACITY = 256;
+    private static final int MASK = CAPACITY - 1;
+
+    private final int[] types = new int[CAPACITY];
+    private final int[] codes = new int[CAPACITY];
+    private final int[] xs = new int[CAPACITY];
+    private final int[] ys = new int[CAPACITY];
+
+    // head двигает только читатель, tail - только писатель; запись в tail публикует событие
+    private final AtomicInteger head = new AtomicInteger();
+    private final AtomicInteger tail = new AtomicInteger();
+
+    // Последняя позиция мыши (x в старших 32 битах, y в младших) и признак, что она ещё не разобрана
+    private final AtomicLong mousePosition = new AtomicLong();
+    private final AtomicBoolean mouseMoved = new AtomicBoolean(false);
+
+    public boolean offer(int type, int code, int x, int y) {
+        if (type == MOUSE_MOVED) {
+            offerMouseMove(x, y);
+            return true;
+        }
+        int t = tail.get();
+        if (t - head.get() == CAPACITY) {
+            return false;
+        }
+        int slot = t & MASK;
+        types[slot] = type;
+        codes[slot] = code;
+        xs[slot] = x;
+        ys[slot] = y;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    public void offerMouseMove(int x, int y) {
+        mousePosition.set((long) x << 32 | (y & 0xFFFFFFFFL));
+        mouseMoved.set(true);
+    }
+
+    // Сначала отдаёт последнее движение мыши, затем события из кольца в порядке поступления
+    public void drain(Handler handler) {
+        if (mouseMoved.getAndSet(false)) {
+            long packed = mousePosition.get();
+            handler.handle(MOUSE_MOVED, 0, (int) (packed >> 32), (int) packed);
+        }
+        int h = head.get();
+        int t = tail.get();
+        while (h != t) {
+            int slot = h & MASK;
+            handler.handle(types[slot], codes[slot], xs[slot], ys[slot]);
+            h++;
+        }
+        head.lazySet(h);
+    }
+}
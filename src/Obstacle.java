@@ -50,11 +50,16 @@ public class Obstacle {
         }
     }
 
-    public void draw(Graphics2D g2d, Camera camera) {
+    public void writeTo(RenderSnapshot snapshot) {
         if (!isActive) return;
+        snapshot.addObstacle(position.x, position.y, width, height, health, maxHealth);
+    }
 
-        double drawX = position.x - width/2 - camera.getOffsetX();
-        double drawY = position.y - height/2 - camera.getOffsetY();
+    // Отрисовка по данным снимка; x, y - центр коробки в мире
+    public static void draw(Graphics2D g2d, double x, double y, double width, double height,
+                            int health, int maxHealth, double offsetX, double offsetY) {
+        double drawX = x - width/2 - offsetX;
+        double drawY = y - height/2 - offsetY;
 
         // Если изображение коробки загружено, рисуем его
         if (boxImage != null) {
@@ -96,25 +101,26 @@ public class Obstacle {
 
         // Рисуем трещины в зависимости от повреждений
         if (crackImage != null && health < maxHealth) {
-            drawCracks(g2d, camera);
+            drawCracks(g2d, x, y, width, height, health, maxHealth, offsetX, offsetY);
         } else if (health < maxHealth) {
             // Если изображение трещин не загружено, рисуем простые линии
-            drawSimpleCracks(g2d, camera);
+            drawSimpleCracks(g2d, x, y, width, health, maxHealth, offsetX, offsetY);
         }
 
         // Полоска здоровья
         if (health < maxHealth) {
-            drawHealthBar(g2d, camera, drawX, drawY);
+            drawHealthBar(g2d, width, health, maxHealth, drawX, drawY);
         }
     }
 
-    private void drawCracks(Graphics2D g2d, Camera camera) {
+    private static void drawCracks(Graphics2D g2d, double x, double y, double width, double height,
+                                   int health, int maxHealth, double offsetX, double offsetY) {
         // Количество трещин зависит от повреждений (0-4 трещины)
         int numCracks = 4 - (int)((float)health / maxHealth * 4);
         numCracks = Math.max(0, Math.min(4, numCracks));
 
         // Углы для трещин (случайные для каждой коробки, но фиксированные на основе позиции)
-        long seed = (long)(position.x * 1000 + position.y);
+        long seed = (long)(x * 1000 + y);
         double[] angles = {
                 (seed % 360) * Math.PI / 180,
                 ((seed * 7) % 360) * Math.PI / 180,
@@ -138,8 +144,8 @@ public class Obstacle {
             AffineTransform oldTransform = g2d.getTransform();
 
             // Переходим к центру коробки
-            g2d.translate(position.x - camera.getOffsetX(),
-                    position.y - camera.getOffsetY());
+            g2d.translate(x - offsetX,
+                    y - offsetY);
 
             // Поворачиваем на угол трещины
             g2d.rotate(angles[i]);
@@ -163,13 +169,14 @@ public class Obstacle {
         g2d.setComposite(oldComposite);
     }
 
-    private void drawSimpleCracks(Graphics2D g2d, Camera camera) {
+    private static void drawSimpleCracks(Graphics2D g2d, double x, double y, double width,
+                                         int health, int maxHealth, double offsetX, double offsetY) {
         // Количество трещин зависит от повреждений
         int numCracks = 4 - (int)((float)health / maxHealth * 4);
         numCracks = Math.max(0, Math.min(4, numCracks));
 
         // Углы для трещин
-        long seed = (long)(position.x * 1000 + position.y);
+        long seed = (long)(x * 1000 + y);
         double[] angles = {
                 (seed % 360) * Math.PI / 180,
                 ((seed * 7) % 360) * Math.PI / 180,
@@ -183,8 +190,8 @@ public class Obstacle {
         g2d.setColor(new Color(50, 50, 50, 150));
         g2d.setStroke(new BasicStroke(crackThickness));
 
-        double centerX = position.x - camera.getOffsetX();
-        double centerY = position.y - camera.getOffsetY();
+        double centerX = x - offsetX;
+        double centerY = y - offsetY;
 
         for (int i = 0; i < numCracks; i++) {
             // Сохраняем текущее преобразование
@@ -211,7 +218,8 @@ public class Obstacle {
         }
     }
 
-    private void drawHealthBar(Graphics2D g2d, Camera camera, double drawX, double drawY) {
+    private static void drawHealthBar(Graphics2D g2d, double width, int health, int maxHealth,
+                                      double drawX, double drawY) {
         double healthWidth = (width - 4) * ((double)health / maxHealth);
 
         // Фон полоски здоровья
@@ -264,6 +272,64 @@ public class Obstacle {
         return distance < radius;
     }
 
+    // Момент первого касания круга, движущегося из (x0, y0) в (x1, y1), от 0 до 1; -1 если касания нет.
+    // Это пересечение луча с прямоугольником, расширенным на радиус со скруглёнными углами
+    public double sweepCircle(double x0, double y0, double x1, double y1, double radius) {
+        if (!isActive) return -1;
+        if (collidesWithCircle(x0, y0, radius)) return 0;
+
+        double minX = position.x - width / 2;
+        double maxX = position.x + width / 2;
+        double minY = position.y - height / 2;
+        double maxY = position.y + height / 2;
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+
+        double enter = 0;
+        double exit = 1;
+        if (dx != 0) {
+            double ta = (minX - radius - x0) / dx;
+            double tb = (maxX + radius - x0) / dx;
+            enter = Math.max(enter, Math.min(ta, tb));
+            exit = Math.min(exit, Math.max(ta, tb));
+        } else if (x0 < minX - radius || x0 > maxX + radius) {
+            return -1;
+        }
+        if (dy != 0) {
+            double ta = (minY - radius - y0) / dy;
+            double tb = (maxY + radius - y0) / dy;
+            enter = Math.max(enter, Math.min(ta, tb));
+            exit = Math.min(exit, Math.max(ta, tb));
+        } else if (y0 < minY - radius || y0 > maxY + radius) {
+            return -1;
+        }
+        if (enter > exit) return -1;
+
+        double hitX = x0 + dx * enter;
+        double hitY = y0 + dy * enter;
+        if ((hitX >= minX && hitX <= maxX) || (hitY >= minY && hitY <= maxY)) {
+            return enter;
+        }
+
+        // Вход в расширенный прямоугольник у угла: касание только если задели круг вокруг этого угла
+        double cornerX = hitX < minX ? minX : maxX;
+        double cornerY = hitY < minY ? minY : maxY;
+        double t = sweepPoint(x0 - cornerX, y0 - cornerY, dx, dy, radius);
+        return t >= 0 && t <= 1 ? t : -1;
+    }
+
+    // Первый момент t >= 0, когда точка p + d * t оказывается на расстоянии radius от начала координат; -1 если никогда
+    static double sweepPoint(double px, double py, double dx, double dy, double radius) {
+        double a = dx * dx + dy * dy;
+        double b = px * dx + py * dy;
+        double c = px * px + py * py - radius * radius;
+        if (c <= 0) return 0;
+        if (a == 0 || b >= 0) return -1;
+        double discriminant = b * b - a * c;
+        if (discriminant < 0) return -1;
+        return (-b - Math.sqrt(discriminant)) / a;
+    }
+
     public Vector2D getPosition() {
         return position;
     }
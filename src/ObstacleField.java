@@ -0,0 +1,158 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Знаковое расстояние до ближайшего ящика (отрицательное внутри) в узлах сетки с шагом в полклетки.
+// Между узлами - билинейная интерполяция; дальше RANGE от ящиков значение обрезается.
+// В узле также запоминается номер ближайшего ящика: у углов интерполяция завышает расстояние,
+// поэтому выталкивание досчитывается точно по ящикам четырёх узлов вокруг точки
+public class ObstacleField {
+    private static final float RANGE = 60;
+
+    private final Grid grid;
+    private final double spacing;
+    private final int sampleRows, sampleCols;
+    private final float[] values;
+    private final int[] nearest;
+    private final List<Obstacle> nearby = new ArrayList<>();
+
+    public ObstacleField(Grid grid) {
+        this.grid = grid;
+        this.spacing = grid.getCellSize() / 2;
+        this.sampleCols = grid.getCols() * 2 + 1;
+        this.sampleRows = grid.getRows() * 2 + 1;
+        this.values = new float[sampleRows * sampleCols];
+        this.nearest = new int[sampleRows * sampleCols];
+        Arrays.fill(values, RANGE);
+    }
+
+    public void addObstacle(Obstacle obstacle, int id) {
+        int minCol = toSampleCol(obstacle.getPosition().x - obstacle.getWidth() / 2 - RANGE);
+        int maxCol = toSampleCol(obstacle.getPosition().x + obstacle.getWidth() / 2 + RANGE);
+        int minRow = toSampleRow(obstacle.getPosition().y - obstacle.getHeight() / 2 - RANGE);
+        int maxRow = toSampleRow(obstacle.getPosition().y + obstacle.getHeight() / 2 + RANGE);
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minCol; c <= maxCol; c++) {
+                int i = r * sampleCols + c;
+                float value = signedDistance(obstacle, c * spacing, r * spacing);
+                if (value < values[i]) {
+                    values[i] = value;
+                    nearest[i] = id;
+                }
+            }
+        }
+    }
+
+    // Пересчёт окрестности убранного ящика по оставшимся (Grid к этому моменту его уже отвязал)
+    public void removeObstacle(Obstacle obstacle) {
+        double minX = obstacle.getPosition().x - obstacle.getWidth() / 2 - RANGE;
+        double maxX = obstacle.getPosition().x + obstacle.getWidth() / 2 + RANGE;
+        double minY = obstacle.getPosition().y - obstacle.getHeight() / 2 - RANGE;
+        double maxY = obstacle.getPosition().y + obstacle.getHeight() / 2 + RANGE;
+        grid.queryObstaclesInRect(minX - RANGE, minY - RANGE, maxX + RANGE, maxY + RANGE, nearby);
+
+        int minCol = toSampleCol(minX), maxCol = toSampleCol(maxX);
+        int minRow = toSampleRow(minY), maxRow = toSampleRow(maxY);
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minCol; c <= maxCol; c++) {
+                float value = RANGE;
+                int id = 0;
+                for (int k = 0; k < nearby.size(); k++) {
+                    if (nearby.get(k) == obstacle) continue;
+                    float candidate = signedDistance(nearby.get(k), c * spacing, r * spacing);
+                    if (candidate < value) {
+                        value = candidate;
+                        id = grid.getObstacleId(nearby.get(k));
+                    }
+                }
+                values[r * sampleCols + c] = value;
+                nearest[r * sampleCols + c] = id;
+            }
+        }
+    }
+
+    public double sample(double x, double y) {
+        double u = clampCoordinate(x / spacing, sampleCols);
+        double v = clampCoordinate(y / spacing, sampleRows);
+        int c = Math.min((int) u, sampleCols - 2);
+        int r = Math.min((int) v, sampleRows - 2);
+        double fu = u - c;
+        double fv = v - r;
+        int i = r * sampleCols + c;
+        double top = values[i] + (values[i + 1] - values[i]) * fu;
+        double bottom = values[i + sampleCols] + (values[i + sampleCols + 1] - values[i + sampleCols]) * fu;
+        return top + (bottom - top) * fv;
+    }
+
+    // Выталкивает круг из ящиков. Возвращает глубину проникновения (0 если касания нет),
+    // в normal - направление выталкивания
+    public double resolveCircle(Vector2D position, double radius, Vector2D normal) {
+        // Интерполяция ошибается не больше чем на шаг узлов: дальше от ящиков точная проверка не нужна
+        if (sample(position.x, position.y) >= radius + spacing) return 0;
+
+        double u = clampCoordinate(position.x / spacing, sampleCols);
+        double v = clampCoordinate(position.y / spacing, sampleRows);
+        int i = Math.min((int) v, sampleRows - 2) * sampleCols + Math.min((int) u, sampleCols - 2);
+
+        Obstacle closest = null;
+        double distance = Double.POSITIVE_INFINITY;
+        for (int k = 0; k < 4; k++) {
+            int id = nearest[i + (k >> 1) * sampleCols + (k & 1)];
+            if (id == 0) continue;
+            Obstacle obstacle = grid.getRegisteredObstacle(id);
+            double candidate = signedDistance(obstacle, position.x, position.y);
+            if (candidate < distance) {
+                distance = candidate;
+                closest = obstacle;
+            }
+        }
+        if (closest == null || distance >= radius) return 0;
+
+        // Градиент расстояния до прямоугольника: от ближайшей точки границы наружу
+        double offsetX = position.x - closest.getPosition().x;
+        double offsetY = position.y - closest.getPosition().y;
+        double dx = Math.abs(offsetX) - closest.getWidth() / 2;
+        double dy = Math.abs(offsetY) - closest.getHeight() / 2;
+        double nx, ny;
+        if (dx > 0 && dy > 0) {
+            double length = Math.sqrt(dx * dx + dy * dy);
+            nx = dx / length;
+            ny = dy / length;
+        } else if (dx > dy) {
+            nx = 1;
+            ny = 0;
+        } else {
+            nx = 0;
+            ny = 1;
+        }
+        normal.x = offsetX < 0 ? -nx : nx;
+        normal.y = offsetY < 0 ? -ny : ny;
+
+        double depth = radius - distance;
+        position.x += normal.x * depth;
+        position.y += normal.y * depth;
+        return depth;
+    }
+
+    private static float signedDistance(Obstacle obstacle, double x, double y) {
+        double dx = Math.abs(x - obstacle.getPosition().x) - obstacle.getWidth() / 2;
+        double dy = Math.abs(y - obstacle.getPosition().y) - obstacle.getHeight() / 2;
+        double outsideX = Math.max(dx, 0);
+        double outsideY = Math.max(dy, 0);
+        double outside = Math.sqrt(outsideX * outsideX + outsideY * outsideY);
+        double inside = Math.min(Math.max(dx, dy), 0);
+        return (float) Math.min(outside + inside, RANGE);
+    }
+
+    private double clampCoordinate(double value, int size) {
+        return Math.max(0, Math.min(size - 1, value));
+    }
+
+    private int toSampleCol(double x) {
+        return Math.max(0, Math.min(sampleCols - 1, (int) Math.floor(x / spacing)));
+    }
+
+    private int toSampleRow(double y) {
+        return Math.max(0, Math.min(sampleRows - 1, (int) Math.floor(y / spacing)));
+    }
+}
@@ -0,0 +1,143 @@
+import java.awt.*;
+import java.awt.geom.Ellipse2D;
+
+// Частицы взрывов в параллельных массивах фиксированной ёмкости.
+// Все частицы гаснут с одинаковой скоростью, поэтому умирают в порядке появления:
+// живые лежат одним непрерывным отрезком кольцевого буфера, мёртвые снимаются с головы,
+// а при переполнении новая частица занимает место самой старой
+public class ParticleSystem {
+    private static final int CAPACITY = 4096;
+    private static final int MASK = CAPACITY - 1;
+    private static final float DRAG = 0.95f;
+    private static final float LIFE_DECAY = 0.02f;
+    private static final int ALPHA_LEVELS = 256;
+    private static final int MAX_COLORS = 32;
+
+    private final float[] x = new float[CAPACITY];
+    private final float[] y = new float[CAPACITY];
+    // Позиции на предыдущем шаге симуляции, для интерполяции при отрисовке
+    private final float[] previousX = new float[CAPACITY];
+    private final float[] previousY = new float[CAPACITY];
+    private final float[] vx = new float[CAPACITY];
+    private final float[] vy = new float[CAPACITY];
+    private final float[] size = new float[CAPACITY];
+    private final float[] life = new float[CAPACITY];
+    // Индекс цвета в палитре; прозрачность берётся из life
+    private final byte[] color = new byte[CAPACITY];
+
+    private int head = 0;
+    private int count = 0;
+
+    // Палитра: базовый цвет и все его оттенки по прозрачности. Оттенки создаются сразу при добавлении
+    // цвета и больше не меняются, поэтому поток отрисовки читает их из снимка без синхронизации
+    private final int[] paletteRgb = new int[MAX_COLORS];
+    private final Color[][] paletteShades = new Color[MAX_COLORS][];
+    private int paletteSize = 0;
+
+    public void spawnBurst(double px, double py, Color baseColor, int amount,
+                           double sizeMin, double sizeMax, double speedMin, double speedMax) {
+        byte colorIndex = paletteIndex(baseColor.getRGB() & 0xFFFFFF);
+        double clampedSizeMax = Math.max(sizeMin, sizeMax);
+        double clampedSpeedMax = Math.max(speedMin, speedMax);
+        for (int n = 0; n < amount; n++) {
+            int i;
+            if (count == CAPACITY) {
+                // Переиспользуем самую старую частицу
+                i = head;
+                head = (head + 1) & MASK;
+            } else {
+                i = (head + count) & MASK;
+                count++;
+            }
+            double angle = Math.random() * Math.PI * 2;
+            double speed = speedMin + Math.random() * (clampedSpeedMax - speedMin);
+            x[i] = (float) px;
+            y[i] = (float) py;
+            previousX[i] = x[i];
+            previousY[i] = y[i];
+            vx[i] = (float) (Math.cos(angle) * speed);
+            vy[i] = (float) (Math.sin(angle) * speed);
+            size[i] = (float) (sizeMin + Math.random() * (clampedSizeMax - sizeMin));
+            life[i] = 1.0f;
+            color[i] = colorIndex;
+        }
+    }
+
+    public void update(double deltaTime) {
+        for (int n = 0; n < count; n++) {
+            int i = (head + n) & MASK;
+            previousX[i] = x[i];
+            previousY[i] = y[i];
+            x[i] += vx[i];
+            y[i] += vy[i];
+            vx[i] *= DRAG;
+            vy[i] *= DRAG;
+            life[i] -= LIFE_DECAY;
+        }
+        while (count > 0 && life[head] <= 0) {
+            head = (head + 1) & MASK;
+            count--;
+        }
+    }
+
+    public void writeTo(RenderSnapshot snapshot) {
+        RenderSnapshot.Layer layer = snapshot.particles;
+        for (int n = 0; n < count; n++) {
+            int i = (head + n) & MASK;
+            if (life[i] <= 0) continue;
+            layer.add(previousX[i], previousY[i], x[i], y[i], size[i], life[i], color[i]);
+        }
+        snapshot.particleShades = paletteShades;
+    }
+
+    // Отрисовка одной частицы по данным снимка; shades - палитра из снимка, shape - рабочий объект
+    // потока отрисовки
+    public static void draw(Graphics2D g2d, Ellipse2D.Double shape, Color[][] shades, int colorIndex, double life,
+                            double px, double py, double s, double offsetX, double offsetY) {
+        g2d.setColor(shades[colorIndex][(int) (life * 255)]);
+        shape.setFrame(px - s / 2 - offsetX, py - s / 2 - offsetY, s, s);
+        g2d.fill(shape);
+    }
+
+    public void clear() {
+        head = 0;
+        count = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    private byte paletteIndex(int rgb) {
+        for (int i = 0; i < paletteSize; i++) {
+            if (paletteRgb[i] == rgb) return (byte) i;
+        }
+        if (paletteSize == MAX_COLORS) {
+            // Палитра заполнена - берём ближайший цвет
+            int best = 0;
+            int bestDist = Integer.MAX_VALUE;
+            for (int i = 0; i < paletteSize; i++) {
+                int dist = colorDistance(paletteRgb[i], rgb);
+                if (dist < bestDist) {
+                    bestDist = dist;
+                    best = i;
+                }
+            }
+            return (byte) best;
+        }
+        paletteRgb[paletteSize] = rgb;
+        Color[] shades = new Color[ALPHA_LEVELS];
+        for (int alpha = 0; alpha < ALPHA_LEVELS; alpha++) {
+            shades[alpha] = new Color((rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF, alpha);
+        }
+        paletteShades[paletteSize] = shades;
+        return (byte) paletteSize++;
+    }
+
+    private static int colorDistance(int a, int b) {
+        int dr = ((a >> 16) & 0xFF) - ((b >> 16) & 0xFF);
+        int dg = ((a >> 8) & 0xFF) - ((b >> 8) & 0xFF);
+        int db = (a & 0xFF) - (b & 0xFF);
+        return dr * dr + dg * dg + db * db;
+    }
+}
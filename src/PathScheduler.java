@@ -0,0 +1,99 @@
+import java.util.List;
+
+// Раздаёт обновления направления врагам в пределах бюджета на тик:
+// сначала ближние к игроку и давно не обновлявшиеся
+public class PathScheduler {
+    private static final int MAX_REFRESHES_PER_TICK = 64;
+    private static final long TIME_BUDGET_NANOS = 1_000_000L;
+    // Дальше этого расстояния направление устаревает медленнее пропорционально расстоянию
+    private static final double REFERENCE_DISTANCE = 400;
+    private static final double MIN_DISTANCE = 40;
+    // Дольше этого без обновления никто не остаётся (если хватает бюджета)
+    private static final double MAX_STALENESS = 1.0;
+    // Ярус устаревших: обычный приоритет не превышает MAX_STALENESS * REFERENCE_DISTANCE / MIN_DISTANCE,
+    // а прибавка возраста к 1e9 ещё различима, так что среди устаревших первыми идут самые старые
+    private static final double STALE_PRIORITY = 1e9;
+
+    // Мин-куча выбранных кандидатов по приоритету
+    private final int[] heap = new int[MAX_REFRESHES_PER_TICK];
+    private final double[] heapPriority = new double[MAX_REFRESHES_PER_TICK];
+    private int heapSize;
+
+    public void update(List<Enemy> enemies, Vector2D player, Grid grid) {
+        DistanceSnapshot snapshot = grid.getDistanceSnapshot();
+        heapSize = 0;
+
+        for (int i = 0; i < enemies.size(); i++) {
+            Enemy enemy = enemies.get(i);
+            if (!enemy.isAlive()) continue;
+            double priority = getPriority(enemy, player);
+            if (heapSize < heap.length) {
+                push(i, priority);
+            } else if (priority > heapPriority[0]) {
+                heap[0] = i;
+                heapPriority[0] = priority;
+                siftDown(0);
+            }
+        }
+
+        // Из кучи достаются от меньшего к большему, поэтому сначала сортируем по убыванию
+        int count = heapSize;
+        while (heapSize > 1) {
+            int last = heapSize - 1;
+            swap(0, last);
+            heapSize--;
+            siftDown(0);
+        }
+
+        long deadline = System.nanoTime() + TIME_BUDGET_NANOS;
+        for (int i = 0; i < count; i++) {
+            enemies.get(heap[i]).refreshSteering(grid, snapshot);
+            if (System.nanoTime() > deadline) break;
+        }
+    }
+
+    private double getPriority(Enemy enemy, Vector2D player) {
+        double age = enemy.getSteeringAge();
+        if (age >= MAX_STALENESS) {
+            return STALE_PRIORITY + age;
+        }
+        double dx = enemy.getPosition().x - player.x;
+        double dy = enemy.getPosition().y - player.y;
+        double distance = Math.max(Math.sqrt(dx * dx + dy * dy), MIN_DISTANCE);
+        return age * REFERENCE_DISTANCE / distance;
+    }
+
+    private void push(int index, double priority) {
+        int pos = heapSize++;
+        heap[pos] = index;
+        heapPriority[pos] = priority;
+        while (pos > 0) {
+            int parent = (pos - 1) >> 1;
+            if (heapPriority[parent] <= heapPriority[pos]) break;
+            swap(pos, parent);
+            pos = parent;
+        }
+    }
+
+    private void siftDown(int pos) {
+        while (true) {
+            int child = 2 * pos + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && heapPriority[child + 1] < heapPriority[child]) {
+                child++;
+            }
+            if (heapPriority[pos] <= heapPriority[child]) break;
+            swap(pos, child);
+            pos = child;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int index = heap[a];
+        heap[a] = heap[b];
+        heap[b] = index;
+        double priority = heapPriority[a];
+        heapPriority[a] = heapPriority[b];
+        heapPriority[b] = priority;
+    }
+}
@@ -1,85 +1,435 @@
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public class Pathfinder {
+    public enum SearchMode {
+        ASTAR,
+        JPS,
+        AUTO
+    }
+
+    private static final float STRAIGHT_COST = 1.0f;
+    private static final float DIAGONAL_COST = (float) Math.sqrt(2);
+    private static final int[] NEIGHBOR_DR = {-1, -1, -1, 0, 0, 1, 1, 1};
+    private static final int[] NEIGHBOR_DC = {-1, 0, 1, -1, 1, -1, 0, 1};
+    private static final int BATCH_CHUNK = 8;
+    // При AUTO JPS включается на картах, где занято меньше этой доли ячеек
+    private static final double JPS_MAX_BLOCKED_RATIO = 0.15;
+
+    // Свой буфер на каждый поток, чтобы пакетные запросы не мешали друг другу
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
 
     public static List<GridCell> findPath(Grid grid, GridCell start, GridCell target) {
-        if (start == null || target == null || !target.walkable) {
+        if (start == null || target == null || !target.isWalkable()) {
+            return new ArrayList<>();
+        }
+
+        Scratch scratch = SCRATCH.get();
+        int cols = grid.getCols();
+        int startIndex = start.row * cols + start.col;
+        int targetIndex = target.row * cols + target.col;
+        boolean found = useJumpPoints(grid)
+                ? scratch.searchJumpPoints(grid, startIndex, targetIndex)
+                : scratch.search(grid, startIndex, targetIndex, 0, 0, grid.getRows() - 1, cols - 1);
+        if (!found) {
+            return new ArrayList<>(); // Путь не найден
+        }
+        return scratch.retrace(grid, startIndex, targetIndex);
+    }
+
+    private static boolean useJumpPoints(Grid grid) {
+        switch (grid.getSearchMode()) {
+            case JPS:
+                return true;
+            case AUTO:
+                return grid.getBlockedRatio() < JPS_MAX_BLOCKED_RATIO;
+            default:
+                return false;
+        }
+    }
+
+    // Длинные запросы (по октильному расстоянию) решаются на абстрактном графе кластеров, короткие - обычным A*
+    public static List<GridCell> findPathHierarchical(Grid grid, GridCell start, GridCell target) {
+        if (start == null || target == null || !target.isWalkable()) {
             return new ArrayList<>();
         }
+        ClusterGraph graph = grid.getClusterGraph();
+        if (!graph.isLongQuery(start, target)) {
+            return findPath(grid, start, target);
+        }
+        List<GridCell> path = graph.findPath(start, target);
+        return path != null ? path : findPath(grid, start, target);
+    }
+
+    // Поиск в прямоугольнике сетки; индексы пути без стартовой ячейки или null, если пути нет
+    static int[] findIndexPath(Grid grid, int startIndex, int targetIndex,
+                               int minRow, int minCol, int maxRow, int maxCol) {
+        Scratch scratch = SCRATCH.get();
+        if (!scratch.search(grid, startIndex, targetIndex, minRow, minCol, maxRow, maxCol)) {
+            return null;
+        }
+        return scratch.retraceIndices(startIndex, targetIndex);
+    }
+
+    static float stepCost(int fromIndex, int toIndex, int cols) {
+        boolean diagonal = fromIndex / cols != toIndex / cols && fromIndex % cols != toIndex % cols;
+        return diagonal ? DIAGONAL_COST : STRAIGHT_COST;
+    }
+
+    // Пакетный поиск: пары start/target решаются параллельно в ForkJoinPool
+    public static List<List<GridCell>> findPaths(Grid grid, List<GridCell> starts, List<GridCell> targets) {
+        int count = Math.min(starts.size(), targets.size());
+        List<GridCell>[] results = newResultArray(count);
+        if (count > 0) {
+            ForkJoinPool.commonPool().invoke(new BatchTask(grid, starts, targets, results, 0, count));
+        }
+        return Arrays.asList(results);
+    }
 
-        List<GridCell> openSet = new ArrayList<>();
-        Set<GridCell> closedSet = new HashSet<>();
-        openSet.add(start);
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static List<GridCell>[] newResultArray(int count) {
+        return (List<GridCell>[]) new List[count];
+    }
+
+    private static float heuristic(int row, int col, int targetRow, int targetCol) {
+        // Октильное расстояние: точная стоимость пути без препятствий
+        int dr = Math.abs(row - targetRow);
+        int dc = Math.abs(col - targetCol);
+        int diagonal = Math.min(dr, dc);
+        return diagonal * DIAGONAL_COST + (Math.max(dr, dc) - diagonal) * STRAIGHT_COST;
+    }
 
-        // Сброс стоимости для всех ячеек
-        for (int r = 0; r < grid.getRows(); r++) {
-            for (int c = 0; c < grid.getCols(); c++) {
-                GridCell cell = grid.getCellAtGridPos(r, c);
-                if (cell != null) {
-                    cell.gCost = 0;
-                    cell.hCost = 0;
-                    cell.parent = null;
+    private static class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Grid grid;
+        private final List<GridCell> starts;
+        private final List<GridCell> targets;
+        private final List<GridCell>[] results;
+        private final int from, to;
+
+        BatchTask(Grid grid, List<GridCell> starts, List<GridCell> targets,
+                  List<GridCell>[] results, int from, int to) {
+            this.grid = grid;
+            this.starts = starts;
+            this.targets = targets;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_CHUNK) {
+                for (int i = from; i < to; i++) {
+                    results[i] = findPath(grid, starts.get(i), targets.get(i));
                 }
+                return;
             }
+            int mid = (from + to) >>> 1;
+            invokeAll(new BatchTask(grid, starts, targets, results, from, mid),
+                    new BatchTask(grid, starts, targets, results, mid, to));
         }
+    }
+
+    // Рабочие массивы A*. Значения ячейки действительны только если stamp == generation,
+    // поэтому перед запросом ничего не сбрасывается
+    private static class Scratch {
+        private int size = -1;
+        private int generation = 0;
+        private int[] stamp;
+        private float[] gCost;
+        private float[] fCost;
+        private int[] parent;
+        private long[] closed;
+        private int[] heap;
+        private int[] heapIndex;
+        private int heapSize;
+
+        boolean search(Grid grid, int startIndex, int targetIndex,
+                       int minRow, int minCol, int maxRow, int maxCol) {
+            int rows = grid.getRows();
+            int cols = grid.getCols();
+            ensureCapacity(rows * cols);
+            nextGeneration();
+
+            int targetRow = targetIndex / cols;
+            int targetCol = targetIndex % cols;
 
-        while (!openSet.isEmpty()) {
-            GridCell current = openSet.get(0);
+            touch(startIndex);
+            gCost[startIndex] = 0;
+            fCost[startIndex] = heuristic(startIndex / cols, startIndex % cols, targetRow, targetCol);
+            push(startIndex);
 
-            // Находим ячейку с наименьшей fCost
-            for (GridCell cell : openSet) {
-                if (cell.fCost() < current.fCost() ||
-                        (Math.abs(cell.fCost() - current.fCost()) < 0.001 && cell.hCost < current.hCost)) {
-                    current = cell;
+            while (heapSize > 0) {
+                int current = pop();
+                if (current == targetIndex) {
+                    return true;
                 }
-            }
+                closed[current >> 6] |= 1L << current;
+
+                int row = current / cols;
+                int col = current % cols;
+                float currentCost = gCost[current];
+
+                for (int i = 0; i < NEIGHBOR_DR.length; i++) {
+                    int nr = row + NEIGHBOR_DR[i];
+                    int nc = col + NEIGHBOR_DC[i];
+                    if (nr < minRow || nr > maxRow || nc < minCol || nc > maxCol) continue;
+                    if (!grid.isWalkable(nr, nc)) continue;
 
-            openSet.remove(current);
-            closedSet.add(current);
+                    int neighbor = nr * cols + nc;
+                    float step = (NEIGHBOR_DR[i] != 0 && NEIGHBOR_DC[i] != 0) ? DIAGONAL_COST : STRAIGHT_COST;
+                    float newCost = currentCost + step;
 
-            // Достигли цели
-            if (current.equals(target)) {
-                return retracePath(start, target);
+                    if (stamp[neighbor] != generation) {
+                        touch(neighbor);
+                    } else if ((closed[neighbor >> 6] & (1L << neighbor)) != 0 || newCost >= gCost[neighbor]) {
+                        continue;
+                    }
+
+                    gCost[neighbor] = newCost;
+                    fCost[neighbor] = newCost + heuristic(nr, nc, targetRow, targetCol);
+                    parent[neighbor] = current;
+                    if (heapIndex[neighbor] < 0) {
+                        push(neighbor);
+                    } else {
+                        siftUp(heapIndex[neighbor]);
+                    }
+                }
             }
+            return false;
+        }
+
+        // Jump Point Search: те же 8 направлений и правила проходимости, что и у A*,
+        // но в очередь попадают только точки прыжка
+        boolean searchJumpPoints(Grid grid, int startIndex, int targetIndex) {
+            int rows = grid.getRows();
+            int cols = grid.getCols();
+            ensureCapacity(rows * cols);
+            nextGeneration();
+
+            int targetRow = targetIndex / cols;
+            int targetCol = targetIndex % cols;
+
+            touch(startIndex);
+            gCost[startIndex] = 0;
+            fCost[startIndex] = heuristic(startIndex / cols, startIndex % cols, targetRow, targetCol);
+            push(startIndex);
 
-            // Проверяем соседей
-            for (GridCell neighbor : grid.getNeighbors(current)) {
-                if (closedSet.contains(neighbor)) {
-                    continue;
+            while (heapSize > 0) {
+                int current = pop();
+                if (current == targetIndex) {
+                    return true;
                 }
+                closed[current >> 6] |= 1L << current;
 
-                double newCostToNeighbor = current.gCost + getDistance(current, neighbor);
-                if (newCostToNeighbor < neighbor.gCost || !openSet.contains(neighbor)) {
-                    neighbor.gCost = newCostToNeighbor;
-                    neighbor.hCost = getDistance(neighbor, target);
-                    neighbor.parent = current;
+                int row = current / cols;
+                int col = current % cols;
+                int from = parent[current];
+                int pr = from < 0 ? 0 : Integer.signum(row - from / cols);
+                int pc = from < 0 ? 0 : Integer.signum(col - from % cols);
 
-                    if (!openSet.contains(neighbor)) {
-                        openSet.add(neighbor);
+                for (int i = 0; i < NEIGHBOR_DR.length; i++) {
+                    int dr = NEIGHBOR_DR[i];
+                    int dc = NEIGHBOR_DC[i];
+                    if (from >= 0 && !isPrunedNeighbor(grid, row, col, pr, pc, dr, dc)) continue;
+
+                    int jumpPoint = jump(grid, row, col, dr, dc, targetRow, targetCol);
+                    if (jumpPoint < 0) continue;
+
+                    int jr = jumpPoint / cols;
+                    int jc = jumpPoint % cols;
+                    float newCost = gCost[current] + heuristic(row, col, jr, jc);
+
+                    if (stamp[jumpPoint] != generation) {
+                        touch(jumpPoint);
+                    } else if ((closed[jumpPoint >> 6] & (1L << jumpPoint)) != 0 || newCost >= gCost[jumpPoint]) {
+                        continue;
+                    }
+
+                    gCost[jumpPoint] = newCost;
+                    fCost[jumpPoint] = newCost + heuristic(jr, jc, targetRow, targetCol);
+                    parent[jumpPoint] = current;
+                    if (heapIndex[jumpPoint] < 0) {
+                        push(jumpPoint);
+                    } else {
+                        siftUp(heapIndex[jumpPoint]);
                     }
                 }
             }
+            return false;
         }
 
-        return new ArrayList<>(); // Путь не найден
-    }
+        // Естественные и вынужденные соседи для движения в направлении (pr, pc)
+        private boolean isPrunedNeighbor(Grid grid, int row, int col, int pr, int pc, int dr, int dc) {
+            if (pr != 0 && pc != 0) {
+                if ((dr == pr && dc == pc) || (dr == pr && dc == 0) || (dr == 0 && dc == pc)) return true;
+                if (dr == pr && dc == -pc) return !grid.isWalkable(row, col - pc);
+                if (dr == -pr && dc == pc) return !grid.isWalkable(row - pr, col);
+                return false;
+            }
+            if (pr == 0) {
+                if (dr == 0 && dc == pc) return true;
+                return dc == pc && dr != 0 && !grid.isWalkable(row + dr, col);
+            }
+            if (dc == 0 && dr == pr) return true;
+            return dr == pr && dc != 0 && !grid.isWalkable(row, col + dc);
+        }
 
-    private static List<GridCell> retracePath(GridCell start, GridCell end) {
-        List<GridCell> path = new ArrayList<>();
-        GridCell current = end;
+        private int jump(Grid grid, int row, int col, int dr, int dc, int targetRow, int targetCol) {
+            int cols = grid.getCols();
+            while (true) {
+                row += dr;
+                col += dc;
+                if (!grid.isWalkable(row, col)) return -1;
+                if (row == targetRow && col == targetCol) return row * cols + col;
+
+                if (dr != 0 && dc != 0) {
+                    if ((grid.isWalkable(row + dr, col - dc) && !grid.isWalkable(row, col - dc))
+                            || (grid.isWalkable(row - dr, col + dc) && !grid.isWalkable(row - dr, col))) {
+                        return row * cols + col;
+                    }
+                    if (jump(grid, row, col, 0, dc, targetRow, targetCol) >= 0
+                            || jump(grid, row, col, dr, 0, targetRow, targetCol) >= 0) {
+                        return row * cols + col;
+                    }
+                } else if (dr == 0) {
+                    if ((grid.isWalkable(row + 1, col + dc) && !grid.isWalkable(row + 1, col))
+                            || (grid.isWalkable(row - 1, col + dc) && !grid.isWalkable(row - 1, col))) {
+                        return row * cols + col;
+                    }
+                } else {
+                    if ((grid.isWalkable(row + dr, col + 1) && !grid.isWalkable(row, col + 1))
+                            || (grid.isWalkable(row + dr, col - 1) && !grid.isWalkable(row, col - 1))) {
+                        return row * cols + col;
+                    }
+                }
+            }
+        }
 
-        while (current != null && !current.equals(start)) {
-            path.add(current);
-            current = current.parent;
+        // Восстанавливает путь по ячейкам; между точками прыжка движение идёт по прямой или диагонали
+        List<GridCell> retrace(Grid grid, int startIndex, int targetIndex) {
+            int cols = grid.getCols();
+            List<GridCell> path = new ArrayList<>();
+            int current = targetIndex;
+            while (current != startIndex && current >= 0) {
+                int previous = parent[current];
+                int row = current / cols;
+                int col = current % cols;
+                int dr = previous < 0 ? 0 : Integer.signum(previous / cols - row);
+                int dc = previous < 0 ? 0 : Integer.signum(previous % cols - col);
+                while (row * cols + col != previous && previous >= 0) {
+                    path.add(grid.getCellAtGridPos(row, col));
+                    row += dr;
+                    col += dc;
+                }
+                if (previous < 0) {
+                    path.add(grid.getCellAtGridPos(row, col));
+                }
+                current = previous;
+            }
+            Collections.reverse(path);
+            return path;
         }
-        Collections.reverse(path);
-        return path;
-    }
 
-    private static double getDistance(GridCell a, GridCell b) {
-        // Евклидово расстояние для более естественного движения
-        int dx = a.col - b.col;
-        int dy = a.row - b.row;
-        return Math.sqrt(dx * dx + dy * dy);
+        int[] retraceIndices(int startIndex, int targetIndex) {
+            int length = 0;
+            for (int current = targetIndex; current != startIndex && current >= 0; current = parent[current]) {
+                length++;
+            }
+            int[] path = new int[length];
+            int current = targetIndex;
+            for (int i = length - 1; i >= 0; i--) {
+                path[i] = current;
+                current = parent[current];
+            }
+            return path;
+        }
+
+        private void ensureCapacity(int cells) {
+            if (cells == size) return;
+            size = cells;
+            generation = 0;
+            stamp = new int[cells];
+            gCost = new float[cells];
+            fCost = new float[cells];
+            parent = new int[cells];
+            closed = new long[(cells + 63) >> 6];
+            heap = new int[cells];
+            heapIndex = new int[cells];
+        }
+
+        private void nextGeneration() {
+            heapSize = 0;
+            generation++;
+            if (generation == Integer.MAX_VALUE) {
+                Arrays.fill(stamp, 0);
+                generation = 1;
+            }
+        }
+
+        // Первое обращение к ячейке в текущем запросе
+        private void touch(int cell) {
+            stamp[cell] = generation;
+            parent[cell] = -1;
+            heapIndex[cell] = -1;
+            closed[cell >> 6] &= ~(1L << cell);
+        }
+
+        private void push(int cell) {
+            heap[heapSize] = cell;
+            heapIndex[cell] = heapSize;
+            heapSize++;
+            siftUp(heapSize - 1);
+        }
+
+        private int pop() {
+            int top = heap[0];
+            heapIndex[top] = -1;
+            heapSize--;
+            if (heapSize > 0) {
+                int last = heap[heapSize];
+                heap[0] = last;
+                heapIndex[last] = 0;
+                siftDown(0);
+            }
+            return top;
+        }
+
+        private void siftUp(int pos) {
+            int cell = heap[pos];
+            float key = fCost[cell];
+            while (pos > 0) {
+                int parentPos = (pos - 1) >> 1;
+                int parentCell = heap[parentPos];
+                if (fCost[parentCell] <= key) break;
+                heap[pos] = parentCell;
+                heapIndex[parentCell] = pos;
+                pos = parentPos;
+            }
+            heap[pos] = cell;
+            heapIndex[cell] = pos;
+        }
+
+        private void siftDown(int pos) {
+            int cell = heap[pos];
+            float key = fCost[cell];
+            int half = heapSize >> 1;
+            while (pos < half) {
+                int child = 2 * pos + 1;
+                int right = child + 1;
+                if (right < heapSize && fCost[heap[right]] < fCost[heap[child]]) {
+                    child = right;
+                }
+                if (key <= fCost[heap[child]]) break;
+                heap[pos] = heap[child];
+                heapIndex[heap[pos]] = pos;
+                pos = child;
+            }
+            heap[pos] = cell;
+            heapIndex[cell] = pos;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,12 @@
+// Взрыв, ожидающий обработки в очереди GameManager; объекты переиспользуются
+public class PendingExplosion {
+    public final Vector2D position = new Vector2D();
+    public double radius;
+    public int damage;
+    public boolean affectPlayer;
+    public double shakeIntensity;
+    public double shakeDuration;
+    public boolean grenade;
+    // Звук взрыва играет вместе с уроном и частицами, а не при постановке в очередь
+    public boolean sound;
+}
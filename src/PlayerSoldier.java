@@ -6,13 +6,14 @@ import java.util.List;
 
 public class PlayerSoldier {
     private Vector2D position;
+    // Позиция на предыдущем шаге симуляции, для интерполяции при отрисовке
+    private final Vector2D previousPosition = new Vector2D();
     private Vector2D velocity;
     private double radius = 10;
-    private Color color;
     private boolean isMain;
     private double followDistance;
     private int index;
-    private BufferedImage skin;
+    private final Vector2D contactNormal = new Vector2D();
 
     private static final String[] SKIN_PATHS = {
             "/data/player_1.png",
@@ -20,34 +21,38 @@ public class PlayerSoldier {
     };
     private static final BufferedImage[] SKINS = loadSkins(SKIN_PATHS);
 
-    public PlayerSoldier(double x, double y, Color color, boolean isMain, int index) {
+    // Цвет солдата по номеру в отряде, если скины не загрузились
+    private static final Color[] COLORS = {
+            new Color(0, 150, 255),    // Главный - синий
+            new Color(0, 200, 100),    // Зеленый
+            new Color(255, 100, 0),    // Оранжевый
+            new Color(200, 0, 200),    // Фиолетовый
+            new Color(255, 200, 0),    // Желтый
+            new Color(100, 255, 200)   // Бирюзовый
+    };
+
+    public PlayerSoldier(double x, double y, boolean isMain, int index) {
         this.position = new Vector2D(x, y);
+        storePreviousPosition();
         this.velocity = new Vector2D();
-        this.color = color;
         this.isMain = isMain;
         this.index = index;
         this.followDistance = 30 + index * 15;
-        this.skin = pickSkin(index);
     }
 
-    public void update(double deltaTime, Vector2D mainPosition, Vector2D target, List<Obstacle> obstacles) {
-        Vector2D oldPosition = position.copy();
+    public void update(double deltaTime, Vector2D mainPosition, Vector2D target, Grid grid) {
+        ObstacleField field = grid.getObstacleField();
 
         if (isMain) {
             position.x += velocity.x;
             position.y += velocity.y;
 
-            for (Obstacle obstacle : obstacles) {
-                if (!obstacle.isActive()) continue;
-
-                if (obstacle.collidesWithCircle(position.x, position.y, radius)) {
-                    position = oldPosition;
-                    Vector2D push = new Vector2D(position.x - obstacle.getPosition().x,
-                            position.y - obstacle.getPosition().y);
-                    push.normalize();
-                    velocity.x = push.x * 2;
-                    velocity.y = push.y * 2;
-                    break;
+            if (field.resolveCircle(position, radius, contactNormal) > 0) {
+                // Гасим составляющую скорости в стену: солдат скользит вдоль неё, а не отскакивает
+                double into = velocity.x * contactNormal.x + velocity.y * contactNormal.y;
+                if (into < 0) {
+                    velocity.x -= contactNormal.x * into;
+                    velocity.y -= contactNormal.y * into;
                 }
             }
 
@@ -61,24 +66,26 @@ public class PlayerSoldier {
             position.x += (targetX - position.x) * 0.1;
             position.y += (targetY - position.y) * 0.1;
 
-            for (Obstacle obstacle : obstacles) {
-                if (!obstacle.isActive()) continue;
-
-                if (obstacle.collidesWithCircle(position.x, position.y, radius)) {
-                    Vector2D push = new Vector2D(position.x - obstacle.getPosition().x,
-                            position.y - obstacle.getPosition().y);
-                    push.normalize();
-                    position.x += push.x * 2;
-                    position.y += push.y * 2;
-                    break;
-                }
-            }
+            field.resolveCircle(position, radius, contactNormal);
         }
     }
 
-    public void draw(Graphics2D g2d, Camera camera) {
-        double drawX = position.x - radius - camera.getOffsetX();
-        double drawY = position.y - radius - camera.getOffsetY();
+    public void storePreviousPosition() {
+        previousPosition.x = position.x;
+        previousPosition.y = position.y;
+    }
+
+    public void writeTo(RenderSnapshot snapshot) {
+        snapshot.soldiers.add(previousPosition.x, previousPosition.y, position.x, position.y,
+                radius, isMain ? 1 : 0, index);
+    }
+
+    // Отрисовка по данным снимка; px, py - интерполированная позиция в мире
+    public static void draw(Graphics2D g2d, double px, double py, double radius, int index, boolean isMain,
+                            double offsetX, double offsetY) {
+        BufferedImage skin = pickSkin(index);
+        double drawX = px - radius - offsetX;
+        double drawY = py - radius - offsetY;
 
         if (skin != null) {
             g2d.drawImage(skin, (int) drawX, (int) drawY, (int) (radius * 2), (int) (radius * 2), null);
@@ -97,7 +104,7 @@ public class PlayerSoldier {
                 radius * 2
         );
 
-        g2d.setColor(color);
+        g2d.setColor(COLORS[Math.abs(index) % COLORS.length]);
         g2d.fill(circle);
 
         if (isMain) {
@@ -108,8 +115,8 @@ public class PlayerSoldier {
 
         g2d.setColor(Color.BLACK);
         g2d.fillOval(
-                (int)(position.x + radius * 0.5 - camera.getOffsetX()),
-                (int)(position.y - radius * 0.3 - camera.getOffsetY()),
+                (int)(px + radius * 0.5 - offsetX),
+                (int)(py - radius * 0.3 - offsetY),
                 (int)(radius * 0.6),
                 (int)(radius * 0.6)
         );
@@ -131,6 +138,7 @@ public class PlayerSoldier {
     public void setPosition(double x, double y) {
         this.position.x = x;
         this.position.y = y;
+        storePreviousPosition();
         this.velocity.x = 0;
         this.velocity.y = 0;
     }
@@ -0,0 +1,265 @@
+import java.awt.*;
+import java.awt.geom.Ellipse2D;
+import java.util.Arrays;
+
+// Все снаряды (пули отряда, гранаты, пули и снаряды босса) в параллельных массивах.
+// Удаление - перестановкой последнего на место удаляемого; у каждого снаряда ограничено время жизни,
+// пули дополнительно исчезают за пределами мира
+public class ProjectileSystem {
+    public enum Kind {
+        BULLET,
+        GRENADE,
+        BOSS_BULLET,
+        BOSS_SHELL
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+
+    private static final double BULLET_SPEED = 10;
+    private static final double BULLET_RADIUS = 4;
+    private static final double BULLET_TTL = 3.0;
+    private static final double GRENADE_SPEED = 6;
+    private static final double GRENADE_RADIUS = 6;
+    private static final double GRENADE_FUSE = 1.2;
+    private static final double GRENADE_DRAG = 0.98;
+    private static final double BOSS_BULLET_RADIUS = 3.5;
+    private static final double BOSS_SHELL_RADIUS = 6.0;
+    // Насколько пуля может вылететь за край мира, прежде чем её уберут
+    private static final double WORLD_MARGIN = 100;
+
+    private static final Color BULLET_COLOR = new Color(255, 255, 100);
+    private static final Color BULLET_GLOW = new Color(255, 255, 100, 100);
+    private static final Color GRENADE_BODY = new Color(80, 80, 80);
+    private static final Color GRENADE_PIN = new Color(200, 200, 50);
+    private static final Color BOSS_BULLET_COLOR = new Color(255, 80, 80);
+    private static final Color BOSS_SHELL_COLOR = new Color(240, 170, 60);
+
+    private final double worldWidth, worldHeight;
+
+    private int count = 0;
+    private double[] x = new double[64];
+    private double[] y = new double[64];
+    // Позиции на предыдущем шаге симуляции, для интерполяции при отрисовке
+    private double[] previousX = new double[64];
+    private double[] previousY = new double[64];
+    private double[] vx = new double[64];
+    private double[] vy = new double[64];
+    private double[] radius = new double[64];
+    private double[] ttl = new double[64];
+    private double[] explosionRadius = new double[64];
+    private int[] damage = new int[64];
+    private byte[] kind = new byte[64];
+
+    private final SweepHit hit = new SweepHit();
+    private final Vector2D impact = new Vector2D();
+
+    public ProjectileSystem(double worldWidth, double worldHeight) {
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+    }
+
+    public void spawnBullet(double startX, double startY, double targetX, double targetY, int damage) {
+        add(Kind.BULLET, startX, startY, targetX, targetY, BULLET_SPEED, BULLET_RADIUS, damage, BULLET_TTL, 0);
+    }
+
+    public void spawnGrenade(double startX, double startY, double targetX, double targetY) {
+        add(Kind.GRENADE, startX, startY, targetX, targetY, GRENADE_SPEED, GRENADE_RADIUS, 0, GRENADE_FUSE, 0);
+    }
+
+    public void spawnBossBullet(double startX, double startY, double targetX, double targetY,
+                                double speed, int damage, double ttl) {
+        add(Kind.BOSS_BULLET, startX, startY, targetX, targetY, speed, BOSS_BULLET_RADIUS, damage, ttl, 0);
+    }
+
+    public void spawnBossShell(double startX, double startY, double targetX, double targetY,
+                               double speed, int damage, double ttl, double explosionRadius) {
+        add(Kind.BOSS_SHELL, startX, startY, targetX, targetY, speed, BOSS_SHELL_RADIUS, damage, ttl, explosionRadius);
+    }
+
+    public void update(double deltaTime, Grid grid, SpatialHash enemies, GameManager game) {
+        int i = 0;
+        while (i < count) {
+            if (step(i, deltaTime, grid, enemies, game)) {
+                i++;
+            } else {
+                remove(i);
+            }
+        }
+    }
+
+    // Один шаг снаряда i; false если снаряд нужно убрать
+    private boolean step(int i, double deltaTime, Grid grid, SpatialHash enemies, GameManager game) {
+        Kind type = KINDS[kind[i]];
+        double startX = x[i];
+        double startY = y[i];
+        previousX[i] = startX;
+        previousY[i] = startY;
+        x[i] += vx[i];
+        y[i] += vy[i];
+        ttl[i] -= deltaTime;
+
+        // Самое раннее касание на пройденном отрезке; враги задевают только пули отряда
+        hit.reset();
+        grid.sweepObstacles(startX, startY, x[i], y[i], radius[i], hit);
+        if (type == Kind.BULLET) {
+            enemies.sweepCircle(startX, startY, x[i], y[i], radius[i], hit);
+        }
+        if (hit.isHit()) {
+            x[i] = startX + vx[i] * hit.time;
+            y[i] = startY + vy[i] * hit.time;
+        }
+        impact.x = x[i];
+        impact.y = y[i];
+
+        switch (type) {
+            case BULLET:
+                if (hit.obstacle != null) {
+                    hit.obstacle.takeDamage(damage[i]);
+                } else if (hit.enemy != null) {
+                    game.applyDamageToEnemy(hit.enemy, damage[i]);
+                }
+                if (hit.isHit() || game.hitBossWithBullet(impact, damage[i])) {
+                    game.onBulletImpact(impact);
+                    return false;
+                }
+                return ttl[i] > 0 && isInsideWorld(i);
+
+            case GRENADE:
+                vx[i] *= GRENADE_DRAG;
+                vy[i] *= GRENADE_DRAG;
+                if (hit.isHit() || ttl[i] <= 0) {
+                    game.explodeGrenadeAt(impact);
+                    return false;
+                }
+                return true;
+
+            case BOSS_BULLET:
+                if (hit.isHit() || ttl[i] <= 0) {
+                    return false;
+                }
+                return !game.hitSquadWithBossBullet(impact, radius[i], damage[i]) && isInsideWorld(i);
+
+            case BOSS_SHELL:
+                if (hit.isHit() || ttl[i] <= 0) {
+                    game.explodeShell(impact, explosionRadius[i], damage[i], 8, 0.4);
+                    return false;
+                }
+                if (game.isSquadNear(impact, radius[i] + 10)) {
+                    game.explodeShell(impact, explosionRadius[i], damage[i], 10, 0.5);
+                    return false;
+                }
+                return true;
+
+            default:
+                return false;
+        }
+    }
+
+    public void writeTo(RenderSnapshot snapshot) {
+        RenderSnapshot.Layer layer = snapshot.projectiles;
+        for (int i = 0; i < count; i++) {
+            layer.add(previousX[i], previousY[i], x[i], y[i], radius[i], 0, kind[i]);
+        }
+    }
+
+    // Отрисовка одного снаряда по данным снимка; shape - рабочий объект потока отрисовки
+    public static void draw(Graphics2D g2d, Ellipse2D.Double shape, int kindIndex, double px, double py, double r,
+                            double offsetX, double offsetY) {
+        double drawX = px - r - offsetX;
+        double drawY = py - r - offsetY;
+        switch (KINDS[kindIndex]) {
+            case BULLET:
+                fillCircle(g2d, shape, BULLET_COLOR, drawX, drawY, r * 2);
+                // Эффект свечения
+                fillCircle(g2d, shape, BULLET_GLOW, px - r * 1.5 - offsetX, py - r * 1.5 - offsetY, r * 3);
+                break;
+            case GRENADE:
+                fillCircle(g2d, shape, GRENADE_BODY, drawX, drawY, r * 2);
+                fillCircle(g2d, shape, GRENADE_PIN, drawX + r * 0.5, drawY - r * 0.2, r * 0.6);
+                break;
+            case BOSS_BULLET:
+                fillCircle(g2d, shape, BOSS_BULLET_COLOR, drawX, drawY, r * 2);
+                break;
+            case BOSS_SHELL:
+                fillCircle(g2d, shape, BOSS_SHELL_COLOR, drawX, drawY, r * 2);
+                break;
+        }
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    private static void fillCircle(Graphics2D g2d, Ellipse2D.Double shape, Color color,
+                                   double left, double top, double size) {
+        shape.setFrame(left, top, size, size);
+        g2d.setColor(color);
+        g2d.fill(shape);
+    }
+
+    private boolean isInsideWorld(int i) {
+        return x[i] >= -WORLD_MARGIN && x[i] <= worldWidth + WORLD_MARGIN
+                && y[i] >= -WORLD_MARGIN && y[i] <= worldHeight + WORLD_MARGIN;
+    }
+
+    private void add(Kind type, double startX, double startY, double targetX, double targetY,
+                     double speed, double size, int damageValue, double lifetime, double blastRadius) {
+        if (count == x.length) {
+            grow(count * 2);
+        }
+        double dx = targetX - startX;
+        double dy = targetY - startY;
+        double length = Math.sqrt(dx * dx + dy * dy);
+        if (length > 0) {
+            dx /= length;
+            dy /= length;
+        }
+
+        int i = count++;
+        x[i] = startX;
+        y[i] = startY;
+        previousX[i] = startX;
+        previousY[i] = startY;
+        vx[i] = dx * speed;
+        vy[i] = dy * speed;
+        radius[i] = size;
+        ttl[i] = lifetime;
+        explosionRadius[i] = blastRadius;
+        damage[i] = damageValue;
+        kind[i] = (byte) type.ordinal();
+    }
+
+    private void remove(int i) {
+        int last = --count;
+        if (i == last) return;
+        x[i] = x[last];
+        y[i] = y[last];
+        previousX[i] = previousX[last];
+        previousY[i] = previousY[last];
+        vx[i] = vx[last];
+        vy[i] = vy[last];
+        radius[i] = radius[last];
+        ttl[i] = ttl[last];
+        explosionRadius[i] = explosionRadius[last];
+        damage[i] = damage[last];
+        kind[i] = kind[last];
+    }
+
+    private void grow(int capacity) {
+        x = Arrays.copyOf(x, capacity);
+        previousX = Arrays.copyOf(previousX, capacity);
+        previousY = Arrays.copyOf(previousY, capacity);
+        y = Arrays.copyOf(y, capacity);
+        vx = Arrays.copyOf(vx, capacity);
+        vy = Arrays.copyOf(vy, capacity);
+        radius = Arrays.copyOf(radius, capacity);
+        ttl = Arrays.copyOf(ttl, capacity);
+        explosionRadius = Arrays.copyOf(explosionRadius, capacity);
+        damage = Arrays.copyOf(damage, capacity);
+        kind = Arrays.copyOf(kind, capacity);
+    }
+}
@@ -0,0 +1,201 @@
+import java.awt.Color;
+import java.util.Arrays;
+
+// Всё, что нужно для отрисовки одного шага симуляции, в примитивных буферах.
+// Заполняется в конце GameManager.update и дальше только читается потоком отрисовки;
+// буферы переиспользуются между кадрами и растут по мере надобности
+public class RenderSnapshot {
+    public static final int BOSS_NONE = 0;
+    public static final int BOSS_TANK = 1;
+    public static final int BOSS_HELICOPTER = 2;
+
+    // Набор круглых объектов одного вида. Общие поля: позиции на предыдущем и текущем шаге и размер;
+    // value и kind у каждого слоя свои (см. writeTo у владельцев)
+    static final class Layer {
+        int count;
+        double[] previousX = new double[64];
+        double[] previousY = new double[64];
+        double[] x = new double[64];
+        double[] y = new double[64];
+        double[] size = new double[64];
+        double[] value = new double[64];
+        int[] kind = new int[64];
+
+        void clear() {
+            count = 0;
+        }
+
+        // Добавляет объект и возвращает его индекс, остальные поля заполняет вызывающий
+        int add(double prevX, double prevY, double curX, double curY, double objectSize, double objectValue, int objectKind) {
+            if (count == x.length) {
+                grow(count * 2);
+            }
+            int i = count++;
+            previousX[i] = prevX;
+            previousY[i] = prevY;
+            x[i] = curX;
+            y[i] = curY;
+            size[i] = objectSize;
+            value[i] = objectValue;
+            kind[i] = objectKind;
+            return i;
+        }
+
+        void grow(int capacity) {
+            previousX = Arrays.copyOf(previousX, capacity);
+            previousY = Arrays.copyOf(previousY, capacity);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            size = Arrays.copyOf(size, capacity);
+            value = Arrays.copyOf(value, capacity);
+            kind = Arrays.copyOf(kind, capacity);
+        }
+    }
+
+    long frame;
+    // Время публикации; от него поток отрисовки отсчитывает интерполяцию к следующему шагу
+    long publishedNanos;
+
+    double previousOffsetX, previousOffsetY;
+    double offsetX, offsetY;
+
+    // kind - номер солдата в отряде, value - 1 у главного
+    final Layer soldiers = new Layer();
+    // kind - индекс скина, value - доля здоровья
+    final Layer enemies = new Layer();
+    // Направление потока у врагов для режима показа путей, 0 - враг идёт не по потоку
+    double[] enemySteerX = new double[64];
+    double[] enemySteerY = new double[64];
+    // kind - вид снаряда (ProjectileSystem.Kind)
+    final Layer projectiles = new Layer();
+    // kind - индекс цвета в палитре, value - остаток жизни
+    final Layer particles = new Layer();
+    Color[][] particleShades;
+    // kind - тип бонуса, value - фаза покачивания
+    final Layer bonuses = new Layer();
+
+    int obstacleCount;
+    double[] obstacleX = new double[64];
+    double[] obstacleY = new double[64];
+    double[] obstacleWidth = new double[64];
+    double[] obstacleHeight = new double[64];
+    int[] obstacleHealth = new int[64];
+    int[] obstacleMaxHealth = new int[64];
+
+    int bossType = BOSS_NONE;
+    double bossPreviousX, bossPreviousY;
+    double bossX, bossY;
+    double bossRadius;
+    double bossHealthRatio;
+    // Танк - заряжает выстрел
+    boolean bossCharging;
+    String bossName;
+
+    // Туман: видимые сейчас клетки и запомненные препятствия, построчно
+    int fogRows, fogCols;
+    double fogCellSize;
+    boolean[] fogVisible = new boolean[0];
+    boolean[] fogSeen = new boolean[0];
+
+    int playerHealth;
+    int score;
+    int squadSize;
+    int level;
+    int killsThisLevel;
+    int killsToAdvance;
+    int grenadesLeft;
+    double grenadeCooldown;
+    double fireRateMultiplier;
+    double moveSpeedMultiplier;
+    int bulletDamageBonus;
+    double explosionRadiusBonus;
+    double explosiveShotsTimer;
+    double levelBannerTimer;
+    boolean godMode;
+    boolean showPaths;
+    boolean gameOver;
+
+    void clear() {
+        soldiers.clear();
+        enemies.clear();
+        projectiles.clear();
+        particles.clear();
+        bonuses.clear();
+        obstacleCount = 0;
+        bossType = BOSS_NONE;
+    }
+
+    void addEnemy(double prevX, double prevY, double curX, double curY, double radius,
+                  double healthRatio, int skin, double steerX, double steerY) {
+        int i = enemies.add(prevX, prevY, curX, curY, radius, healthRatio, skin);
+        if (enemySteerX.length < enemies.x.length) {
+            enemySteerX = Arrays.copyOf(enemySteerX, enemies.x.length);
+            enemySteerY = Arrays.copyOf(enemySteerY, enemies.x.length);
+        }
+        enemySteerX[i] = steerX;
+        enemySteerY[i] = steerY;
+    }
+
+    void addObstacle(double x, double y, double width, double height, int health, int maxHealth) {
+        if (obstacleCount == obstacleX.length) {
+            int capacity = obstacleCount * 2;
+            obstacleX = Arrays.copyOf(obstacleX, capacity);
+            obstacleY = Arrays.copyOf(obstacleY, capacity);
+            obstacleWidth = Arrays.copyOf(obstacleWidth, capacity);
+            obstacleHeight = Arrays.copyOf(obstacleHeight, capacity);
+            obstacleHealth = Arrays.copyOf(obstacleHealth, capacity);
+            obstacleMaxHealth = Arrays.copyOf(obstacleMaxHealth, capacity);
+        }
+        int i = obstacleCount++;
+        obstacleX[i] = x;
+        obstacleY[i] = y;
+        obstacleWidth[i] = width;
+        obstacleHeight[i] = height;
+        obstacleHealth[i] = health;
+        obstacleMaxHealth[i] = maxHealth;
+    }
+
+    void setBoss(int type, double prevX, double prevY, double curX, double curY, double radius,
+                 double healthRatio, boolean charging, String name) {
+        bossType = type;
+        bossPreviousX = prevX;
+        bossPreviousY = prevY;
+        bossX = curX;
+        bossY = curY;
+        bossRadius = radius;
+        bossHealthRatio = healthRatio;
+        bossCharging = charging;
+        bossName = name;
+    }
+
+    void setFog(boolean[][] visible, boolean[][] seen, int rows, int cols, double cellSize) {
+        fogRows = rows;
+        fogCols = cols;
+        fogCellSize = cellSize;
+        if (visible == null) {
+            fogRows = 0;
+            fogCols = 0;
+            return;
+        }
+        if (fogVisible.length < rows * cols) {
+            fogVisible = new boolean[rows * cols];
+            fogSeen = new boolean[rows * cols];
+        }
+        for (int r = 0; r < rows; r++) {
+            System.arraycopy(visible[r], 0, fogVisible, r * cols, cols);
+            System.arraycopy(seen[r], 0, fogSeen, r * cols, cols);
+        }
+    }
+
+    public long getFrame() {
+        return frame;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public int getScore() {
+        return score;
+    }
+}
@@ -0,0 +1,72 @@
+import java.util.List;
+
+// Уровни детализации симуляции врагов. На экране враг обновляется каждый тик;
+// за экраном - раз в несколько тиков, сразу за все пропущенные; дальше DORMANT_DISTANCE
+// по полю расстояний - тоже редко, без расталкивания, просто сплавляется по потоку
+public class SimulationLod {
+    public enum Level {
+        NEAR(1),
+        FAR(4),
+        DORMANT(12);
+
+        final int interval;
+
+        Level(int interval) {
+            this.interval = interval;
+        }
+    }
+
+    private static final Level[] LEVELS = Level.values();
+
+    // Запас вокруг экрана, в котором враг ещё считается видимым
+    private static final double VIEW_MARGIN = 120;
+    // Путь до игрока по полю расстояний, дальше которого враг засыпает
+    private static final double DORMANT_DISTANCE = 1200;
+
+    private int[] ticks = new int[64];
+    private byte[] levels = new byte[64];
+
+    public void plan(List<Enemy> enemies, Camera camera, int screenWidth, int screenHeight, Grid grid) {
+        if (ticks.length < enemies.size()) {
+            int capacity = Math.max(enemies.size(), ticks.length * 2);
+            ticks = new int[capacity];
+            levels = new byte[capacity];
+        }
+
+        double minX = camera.getOffsetX() - VIEW_MARGIN;
+        double minY = camera.getOffsetY() - VIEW_MARGIN;
+        double maxX = camera.getOffsetX() + screenWidth + VIEW_MARGIN;
+        double maxY = camera.getOffsetY() + screenHeight + VIEW_MARGIN;
+        DistanceSnapshot snapshot = grid.getDistanceSnapshot();
+        double cellSize = grid.getCellSize();
+
+        for (int i = 0; i < enemies.size(); i++) {
+            Enemy enemy = enemies.get(i);
+            Vector2D pos = enemy.getPosition();
+            Level level;
+            if (pos.x >= minX && pos.x <= maxX && pos.y >= minY && pos.y <= maxY) {
+                level = Level.NEAR;
+            } else {
+                double distance = Double.POSITIVE_INFINITY;
+                if (snapshot != null) {
+                    distance = snapshot.getDistance((int) Math.floor(pos.y / cellSize),
+                            (int) Math.floor(pos.x / cellSize)) * cellSize;
+                }
+                // Без поля (вне сетки, недостижим) сплавлять не по чему - остаётся обычный шаг
+                level = distance > DORMANT_DISTANCE && distance < Double.POSITIVE_INFINITY
+                        ? Level.DORMANT : Level.FAR;
+            }
+            levels[i] = (byte) level.ordinal();
+            ticks[i] = enemy.accumulateTicks(level.interval);
+        }
+    }
+
+    // Сколько тиков враг с этим индексом проживает сейчас; 0 - в этот тик он пропускается
+    public int getTicks(int index) {
+        return ticks[index];
+    }
+
+    public Level getLevel(int index) {
+        return LEVELS[levels[index]];
+    }
+}
@@ -0,0 +1,34 @@
+import java.util.concurrent.atomic.AtomicReference;
+
+// Тройной буфер снимков между симуляцией и отрисовкой. Симуляция пишет в свой задний снимок
+// и меняет его местами со средним; отрисовка забирает средний, если он новее её переднего.
+// Каждым снимком в любой момент владеет ровно один поток, поэтому пишущий никогда не трогает
+// то, что сейчас рисуется, а новые объекты не создаются
+public class SnapshotExchange {
+    private RenderSnapshot back = new RenderSnapshot();
+    private final AtomicReference<RenderSnapshot> middle = new AtomicReference<>(new RenderSnapshot());
+    private RenderSnapshot front = new RenderSnapshot();
+    private long nextFrame = 1;
+
+    // Только для потока симуляции: снимок, который можно заполнять
+    public RenderSnapshot beginWrite() {
+        back.clear();
+        return back;
+    }
+
+    // Только для потока симуляции: отдаёт заполненный снимок отрисовке
+    public void publish() {
+        back.frame = nextFrame++;
+        back.publishedNanos = System.nanoTime();
+        back = middle.getAndSet(back);
+    }
+
+    // Только для потока отрисовки: самый свежий опубликованный снимок, null - ещё ничего не опубликовано.
+    // Снимок остаётся за отрисовкой до следующего вызова
+    public RenderSnapshot acquire() {
+        if (middle.get().frame > front.frame) {
+            front = middle.getAndSet(front);
+        }
+        return front.frame > 0 ? front : null;
+    }
+}
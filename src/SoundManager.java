@@ -1,5 +1,6 @@
 import javax.sound.sampled.*;
 import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
 
 public class SoundManager {
     private static final int SAMPLE_RATE = 44100;
@@ -61,22 +62,53 @@ public class SoundManager {
     public static void playDrop() { play(DROP); }
     public static void playBossDeath() { play(BOSS_DEATH); }
 
+    // Несколько постоянных голосов с открытой линией вместо нового потока на каждый звук.
+    // Если все голоса заняты и очередь полна, звук пропускается
+    private static final int VOICES = 4;
+    private static final int VOICE_BUFFER = 8192;
+    private static final ArrayBlockingQueue<byte[]> QUEUE = new ArrayBlockingQueue<>(16);
+    private static volatile boolean audioUnavailable = false;
+
+    static {
+        for (int i = 0; i < VOICES; i++) {
+            Thread thread = new Thread(SoundManager::runVoice, "SoundPlayer-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
     private static void play(byte[] data) {
-        if (data == null) return;
-        Thread thread = new Thread(() -> {
+        if (data == null || audioUnavailable) return;
+        QUEUE.offer(data);
+    }
+
+    private static void runVoice() {
+        SourceDataLine line = null;
+        while (true) {
+            byte[] data;
+            try {
+                data = QUEUE.take();
+            } catch (InterruptedException e) {
+                return;
+            }
             try {
-                SourceDataLine line = AudioSystem.getSourceDataLine(FORMAT);
-                line.open(FORMAT, data.length);
-                line.start();
+                if (line == null) {
+                    line = AudioSystem.getSourceDataLine(FORMAT);
+                    line.open(FORMAT, VOICE_BUFFER);
+                    line.start();
+                }
                 line.write(data, 0, data.length);
                 line.drain();
-                line.stop();
+            } catch (Exception e) {
+                if (line == null) {
+                    audioUnavailable = true;
+                    QUEUE.clear();
+                    return;
+                }
                 line.close();
-            } catch (Exception ignored) {
+                line = null;
             }
-        }, "SoundPlayer");
-        thread.setDaemon(true);
-        thread.start();
+        }
     }
 
     private static byte[] tone(double freq, double durationSeconds, double volume) {
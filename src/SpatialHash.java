@@ -0,0 +1,136 @@
+import java.util.Arrays;
+import java.util.List;
+
+// Равномерная сетка корзин по позициям врагов, перестраивается раз в тик.
+// Корзины лежат подряд в одном массиве (сортировка подсчётом), запросы возвращают индексы в порядке списка
+public class SpatialHash {
+    private final double cellSize;
+    private final int rows, cols;
+    private final int[] cellStart;
+    private final int[] cellFill;
+
+    private Enemy[] entries = new Enemy[64];
+    private int[] entryCell = new int[64];
+    private int[] items = new int[64];
+    // Координаты и радиусы в порядке корзин: соседние ячейки строки сетки лежат подряд
+    private double[] packedX = new double[64];
+    private double[] packedY = new double[64];
+    private double[] packedRadius = new double[64];
+    private double[] slack = new double[64];
+    private int count;
+    private double maxRadius;
+
+    public SpatialHash(double worldWidth, double worldHeight, double cellSize) {
+        this.cellSize = cellSize;
+        this.cols = Math.max(1, (int) Math.ceil(worldWidth / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(worldHeight / cellSize));
+        this.cellStart = new int[rows * cols + 1];
+        this.cellFill = new int[rows * cols];
+    }
+
+    public void build(List<Enemy> enemies) {
+        int previousCount = count;
+        count = enemies.size();
+        if (entries.length < count) {
+            int capacity = Math.max(count, entries.length * 2);
+            entries = new Enemy[capacity];
+            entryCell = new int[capacity];
+            items = new int[capacity];
+            packedX = new double[capacity];
+            packedY = new double[capacity];
+            packedRadius = new double[capacity];
+            slack = new double[capacity];
+        }
+
+        if (previousCount > count) {
+            Arrays.fill(entries, count, previousCount, null);
+        }
+
+        maxRadius = 0;
+        Arrays.fill(cellStart, 0);
+        for (int i = 0; i < count; i++) {
+            Enemy enemy = enemies.get(i);
+            entries[i] = enemy;
+            int cell = cellRow(enemy.getPosition().y) * cols + cellCol(enemy.getPosition().x);
+            entryCell[i] = cell;
+            cellStart[cell + 1]++;
+            maxRadius = Math.max(maxRadius, enemy.getRadius());
+        }
+        for (int c = 0; c < rows * cols; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        System.arraycopy(cellStart, 0, cellFill, 0, rows * cols);
+        for (int i = 0; i < count; i++) {
+            int k = cellFill[entryCell[i]]++;
+            items[k] = i;
+            packedX[k] = entries[i].getPosition().x;
+            packedY[k] = entries[i].getPosition().y;
+            packedRadius[k] = entries[i].getRadius();
+        }
+    }
+
+    public Enemy get(int index) {
+        return entries[index];
+    }
+
+    public int size() {
+        return count;
+    }
+
+    // Враги, чей круг (в позиции на момент build) пересекается с кругом (x, y, radius)
+    public void queryCircle(double x, double y, double radius, IntList out) {
+        queryCircle(x, y, radius, out, slack);
+    }
+
+    // То же со своим рабочим массивом не короче size(): так запросы можно делать из нескольких потоков сразу
+    public void queryCircle(double x, double y, double radius, IntList out, double[] scratch) {
+        out.clear();
+        double reach = radius + maxRadius;
+        int minRow = cellRow(y - reach), maxRow = cellRow(y + reach);
+        int minCol = cellCol(x - reach), maxCol = cellCol(x + reach);
+        for (int r = minRow; r <= maxRow; r++) {
+            CircleKernel.collect(packedX, packedY, packedRadius, items,
+                    cellStart[r * cols + minCol], cellStart[r * cols + maxCol + 1],
+                    x, y, radius, scratch, out);
+        }
+        out.sort();
+    }
+
+    // Самое раннее касание врага кругом, движущимся по отрезку; уже найденное более раннее попадание сохраняется
+    public void sweepCircle(double x0, double y0, double x1, double y1, double radius, SweepHit hit) {
+        double reach = radius + maxRadius;
+        int minRow = cellRow(Math.min(y0, y1) - reach), maxRow = cellRow(Math.max(y0, y1) + reach);
+        int minCol = cellCol(Math.min(x0, x1) - reach), maxCol = cellCol(Math.max(x0, x1) + reach);
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        int bestIndex = -1;
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minCol; c <= maxCol; c++) {
+                int cell = r * cols + c;
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    int index = items[k];
+                    Enemy enemy = entries[index];
+                    // Убитый раньше на этом же тике остаётся в хэше до следующей сборки
+                    if (!enemy.isAlive()) continue;
+                    double t = Obstacle.sweepPoint(x0 - enemy.getPosition().x, y0 - enemy.getPosition().y,
+                            dx, dy, radius + enemy.getRadius());
+                    if (t < 0 || t > 1 || t > hit.time) continue;
+                    // При равном времени побеждает враг раньше по списку, препятствие - всегда
+                    if (t == hit.time && (hit.obstacle != null || index > bestIndex)) continue;
+                    hit.time = t;
+                    hit.enemy = enemy;
+                    hit.obstacle = null;
+                    bestIndex = index;
+                }
+            }
+        }
+    }
+
+    private int cellRow(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor(y / cellSize)));
+    }
+
+    private int cellCol(double x) {
+        return Math.max(0, Math.min(cols - 1, (int) Math.floor(x / cellSize)));
+    }
+}
@@ -1,18 +1,10 @@
-import java.awt.*;
 import java.util.ArrayList;
 import java.util.List;
 
 public class Squad {
     private List<PlayerSoldier> soldiers;
     private Vector2D targetPosition; // Позиция мыши для следования
-    private Color[] soldierColors = {
-            new Color(0, 150, 255),    // Главный - синий
-            new Color(0, 200, 100),    // Зеленый
-            new Color(255, 100, 0),    // Оранжевый
-            new Color(200, 0, 200),    // Фиолетовый
-            new Color(255, 200, 0),    // Желтый
-            new Color(100, 255, 200)   // Бирюзовый
-    };
+    private final Vector2D fallbackPosition = new Vector2D();
 
     public Squad(double startX, double startY) {
         soldiers = new ArrayList<>();
@@ -23,19 +15,24 @@ public class Squad {
     }
 
     public void addSoldier(double x, double y, boolean isMain) {
-        Color color = soldierColors[soldiers.size() % soldierColors.length];
-        soldiers.add(new PlayerSoldier(x, y, color, isMain, soldiers.size()));
+        soldiers.add(new PlayerSoldier(x, y, isMain, soldiers.size()));
     }
 
-    public void update(double deltaTime, List<Obstacle> obstacles) {
-        for (PlayerSoldier soldier : soldiers) {
-            soldier.update(deltaTime, soldiers.get(0).getPosition(), targetPosition, obstacles);
+    public void update(double deltaTime, Grid grid) {
+        for (int i = 0; i < soldiers.size(); i++) {
+            soldiers.get(i).update(deltaTime, soldiers.get(0).getPosition(), targetPosition, grid);
         }
     }
 
-    public void draw(Graphics2D g2d, Camera camera) {
-        for (PlayerSoldier soldier : soldiers) {
-            soldier.draw(g2d, camera);
+    public void storePreviousPositions() {
+        for (int i = 0; i < soldiers.size(); i++) {
+            soldiers.get(i).storePreviousPosition();
+        }
+    }
+
+    public void writeTo(RenderSnapshot snapshot) {
+        for (int i = 0; i < soldiers.size(); i++) {
+            soldiers.get(i).writeTo(snapshot);
         }
     }
 
@@ -64,7 +61,7 @@ public class Squad {
         if (!soldiers.isEmpty()) {
             return soldiers.get(0).getPosition();
         }
-        return new Vector2D(0, 0);
+        return fallbackPosition;
     }
 
     public int getSize() {
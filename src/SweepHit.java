@@ -0,0 +1,20 @@
+// Результат проверки движущегося круга: самое раннее попадание на отрезке (time от 0 до 1)
+public class SweepHit {
+    public double time;
+    public Obstacle obstacle;
+    public Enemy enemy;
+
+    public SweepHit() {
+        reset();
+    }
+
+    public void reset() {
+        time = Double.POSITIVE_INFINITY;
+        obstacle = null;
+        enemy = null;
+    }
+
+    public boolean isHit() {
+        return obstacle != null || enemy != null;
+    }
+}
@@ -3,6 +3,8 @@ import java.awt.geom.Ellipse2D;
 
 public class TankBoss implements Boss {
     private Vector2D position;
+    // Позиция на предыдущем шаге симуляции, для интерполяции при отрисовке
+    private final Vector2D previousPosition = new Vector2D();
     private Vector2D velocity = new Vector2D();
     private double radius = 36;
     private int health;
@@ -16,6 +18,7 @@ public class TankBoss implements Boss {
 
     public TankBoss(double x, double y, int maxHealth, double speed) {
         this.position = new Vector2D(x, y);
+        storePreviousPosition();
         this.maxHealth = maxHealth;
         this.health = maxHealth;
         this.speed = speed;
@@ -44,12 +47,12 @@ public class TankBoss implements Boss {
     }
 
     private void moveToward(Vector2D playerPos) {
-        Vector2D dir = new Vector2D(playerPos.x - position.x, playerPos.y - position.y);
-        double dist = dir.distanceTo(new Vector2D(0, 0));
+        double dx = playerPos.x - position.x;
+        double dy = playerPos.y - position.y;
+        double dist = Math.sqrt(dx * dx + dy * dy);
         if (dist > 1) {
-            dir.normalize();
-            velocity.x = dir.x * speed;
-            velocity.y = dir.y * speed;
+            velocity.x = dx / dist * speed;
+            velocity.y = dy / dist * speed;
             position.x += velocity.x;
             position.y += velocity.y;
         }
@@ -60,41 +63,50 @@ public class TankBoss implements Boss {
         int damage = 60;
         double ttl = 2.5;
         double radius = 110;
-        BossProjectile shell = BossProjectile.createShell(
+        game.getProjectiles().spawnBossShell(
                 position.x, position.y,
                 playerPos.x, playerPos.y,
                 speed, damage, ttl, radius
         );
-        game.addBossProjectile(shell);
         SoundManager.playBossShot();
     }
 
     @Override
-    public void draw(Graphics2D g2d, Camera camera) {
-        if (!isAlive()) return;
+    public void storePreviousPosition() {
+        previousPosition.x = position.x;
+        previousPosition.y = position.y;
+    }
 
-        double ox = camera.getOffsetX();
-        double oy = camera.getOffsetY();
+    @Override
+    public void writeTo(RenderSnapshot snapshot) {
+        if (!isAlive()) return;
+        double healthRatio = maxHealth > 0 ? (health / (double) maxHealth) : 0;
+        snapshot.setBoss(RenderSnapshot.BOSS_TANK, previousPosition.x, previousPosition.y, position.x, position.y,
+                radius, healthRatio, charging, getName());
+    }
 
+    // Отрисовка по данным снимка; px, py - интерполированная позиция в мире
+    public static void draw(Graphics2D g2d, double px, double py, double radius, double healthRatio, boolean charging,
+                            double ox, double oy) {
         double bodyW = radius * 2.4;
         double bodyH = radius * 1.4;
-        double bodyX = position.x - bodyW / 2 - ox;
-        double bodyY = position.y - bodyH / 2 - oy;
+        double bodyX = px - bodyW / 2 - ox;
+        double bodyY = py - bodyH / 2 - oy;
 
         double treadW = bodyW * 1.05;
         double treadH = bodyH * 0.35;
-        double treadX = position.x - treadW / 2 - ox;
-        double treadY = position.y + bodyH / 2 - treadH / 2 - oy;
+        double treadX = px - treadW / 2 - ox;
+        double treadY = py + bodyH / 2 - treadH / 2 - oy;
 
         double turretW = bodyW * 0.45;
         double turretH = bodyH * 0.5;
-        double turretX = position.x - turretW / 2 - ox;
-        double turretY = position.y - bodyH * 0.45 - oy;
+        double turretX = px - turretW / 2 - ox;
+        double turretY = py - bodyH * 0.45 - oy;
 
         double barrelW = bodyW * 0.6;
         double barrelH = bodyH * 0.15;
-        double barrelX = position.x + turretW / 2 - ox;
-        double barrelY = position.y - bodyH * 0.2 - barrelH / 2 - oy;
+        double barrelX = px + turretW / 2 - ox;
+        double barrelY = py - bodyH * 0.2 - barrelH / 2 - oy;
 
         g2d.setColor(new Color(50, 50, 50));
         g2d.fillRoundRect((int) treadX, (int) treadY, (int) treadW, (int) treadH, 10, 10);
@@ -114,15 +126,15 @@ public class TankBoss implements Boss {
                     (int) (turretW + 12), (int) (turretH + 12));
         }
 
-        drawHealthBar(g2d, camera);
+        drawHealthBar(g2d, px, py, radius, healthRatio, ox, oy);
     }
 
-    private void drawHealthBar(Graphics2D g2d, Camera camera) {
+    private static void drawHealthBar(Graphics2D g2d, double px, double py, double radius, double healthRatio,
+                                      double ox, double oy) {
         double barWidth = 80;
         double barHeight = 8;
-        double healthRatio = maxHealth > 0 ? (health / (double) maxHealth) : 0;
-        double x = position.x - barWidth / 2 - camera.getOffsetX();
-        double y = position.y - radius - 16 - camera.getOffsetY();
+        double x = px - barWidth / 2 - ox;
+        double y = py - radius - 16 - oy;
 
         g2d.setColor(new Color(0, 0, 0, 150));
         g2d.fillRect((int) x, (int) y, (int) barWidth, (int) barHeight);
@@ -0,0 +1,118 @@
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+// Проверка, что установившийся шаг симуляции не выделяет память.
+// Отряд в режиме бога стоит на месте, водит прицелом, стреляет и бросает гранаты; враги прибывают и идут к нему.
+// После прогрева считаем байты за N тиков отдельно для игрового потока и для остальных потоков
+// (ForkJoin-пул EnemyPhase, DistanceFieldWorker). Тик смены уровня и LEVEL_SETTLE_TICKS после него
+// не считаются: новый уровень заново строит сетку и её рабочие массивы. Код выхода не 0 - проверка не прошла.
+// Запуск: scripts/alloc_gate.sh (или .cmd), аргументы - число тиков, порог в байтах на тик для игрового потока
+// и для остальных потоков
+public class AllocationGate {
+    private static final int WARMUP_TICKS = 1200;
+    private static final int DEFAULT_TICKS = 6000;
+    private static final int LEVEL_SETTLE_TICKS = 120;
+    // Остаток приходится на появление новых врагов, выпадение бонусов и разовый рост буферов
+    // снимка под новый максимум частиц
+    private static final double DEFAULT_MAX_BYTES_PER_TICK = 64;
+    private static final double DEFAULT_MAX_WORKER_BYTES_PER_TICK = 64;
+
+    private static com.sun.management.ThreadMXBean threads;
+    private static long mainThreadId;
+    private static Map<Long, Long> workerBytes = new HashMap<>();
+
+    public static void main(String[] args) {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TICKS;
+        double maxBytesPerTick = args.length > 1 ? Double.parseDouble(args[1]) : DEFAULT_MAX_BYTES_PER_TICK;
+        double maxWorkerBytesPerTick = args.length > 2
+                ? Double.parseDouble(args[2]) : DEFAULT_MAX_WORKER_BYTES_PER_TICK;
+
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            System.err.println("[ERROR] com.sun.management.ThreadMXBean is not available");
+            System.exit(2);
+        }
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            System.err.println("[ERROR] thread allocation counters are not supported");
+            System.exit(2);
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        mainThreadId = Thread.currentThread().getId();
+
+        GameManager game = new GameManager(800, 600);
+        game.toggleGodMode();
+        game.setShooting(true);
+
+        int tick = 0;
+        for (; tick < WARMUP_TICKS; tick++) {
+            step(game, tick);
+        }
+
+        long allocated = 0;
+        long workerAllocated = 0;
+        int counted = 0;
+        int settle = 0;
+        sampleWorkers();
+        for (int i = 0; i < ticks; i++, tick++) {
+            int level = game.getLevel();
+            // Чтение счётчиков других потоков само выделяет память, поэтому оно стоит вне замера игрового потока
+            long before = threads.getThreadAllocatedBytes(mainThreadId);
+            step(game, tick);
+            long mainBytes = threads.getThreadAllocatedBytes(mainThreadId) - before;
+            long otherBytes = sampleWorkers();
+
+            if (game.getLevel() != level) {
+                settle = LEVEL_SETTLE_TICKS;
+            }
+            if (settle > 0) {
+                settle--;
+                continue;
+            }
+            allocated += mainBytes;
+            workerAllocated += otherBytes;
+            counted++;
+        }
+
+        if (counted == 0) {
+            System.err.println("[ERROR] no steady-state ticks: the level changed too often");
+            System.exit(1);
+        }
+        double perTick = allocated / (double) counted;
+        double workerPerTick = workerAllocated / (double) counted;
+        System.out.println(String.format("[INFO] %d of %d ticks counted (level %d)", counted, ticks, game.getLevel()));
+        System.out.println(String.format("[INFO] game thread: %d bytes, %.2f bytes/tick (limit %.2f)",
+                allocated, perTick, maxBytesPerTick));
+        System.out.println(String.format("[INFO] other threads: %d bytes, %.2f bytes/tick (limit %.2f)",
+                workerAllocated, workerPerTick, maxWorkerBytesPerTick));
+        if (perTick > maxBytesPerTick || workerPerTick > maxWorkerBytesPerTick) {
+            System.err.println("[ERROR] simulation tick allocates too much");
+            System.exit(1);
+        }
+        System.out.println("[OK] allocation gate passed");
+        System.exit(0);
+    }
+
+    private static void step(GameManager game, int tick) {
+        game.setMousePosition(400 + 300 * Math.cos(tick * 0.05), 300 + 250 * Math.sin(tick * 0.05));
+        game.tryThrowGrenade();
+        game.update(1.0 / 60.0, 800, 600);
+    }
+
+    // Байты, выделенные всеми потоками, кроме игрового, с прошлого вызова.
+    // Потоки пула появляются и завершаются сами, поэтому счётчики ведутся по id потока
+    private static long sampleWorkers() {
+        long[] ids = threads.getAllThreadIds();
+        long[] bytes = threads.getThreadAllocatedBytes(ids);
+        Map<Long, Long> current = new HashMap<>();
+        long total = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == mainThreadId || bytes[i] < 0) continue;
+            Long previous = workerBytes.get(ids[i]);
+            total += bytes[i] - (previous != null ? previous : 0);
+            current.put(ids[i], bytes[i]);
+        }
+        workerBytes = current;
+        return total;
+    }
+}
@@ -0,0 +1,132 @@
+import java.util.List;
+import java.util.Random;
+
+// Сравнение стоимости путей Pathfinder.findPathHierarchical с обычным A* на случайных картах.
+// Пары у границ кластеров должны совпадать с A* по стоимости, остальные - укладываться в порог.
+// Код выхода не 0 - проверка не прошла.
+// Запуск: scripts/path_gate.sh (или .cmd), аргументы - число карт и допустимое отношение стоимостей
+public class PathCostGate {
+    private static final int SIZE = 60;
+    private static final double CELL_SIZE = 10;
+    private static final int CLUSTER_SIZE = 10;
+    private static final double BLOCKED_RATIO = 0.2;
+    private static final int QUERIES_PER_MAP = 80;
+    private static final int DEFAULT_MAPS = 60;
+    private static final double DEFAULT_MAX_RATIO = 1.25;
+    private static final double EPSILON = 1e-3;
+
+    private static int compared;
+    private static int nearBorder;
+    private static int overLimit;
+    private static int invalid;
+    private static double worstRatio = 1;
+    private static String worstQuery = "";
+
+    public static void main(String[] args) {
+        int maps = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MAPS;
+        double maxRatio = args.length > 1 ? Double.parseDouble(args[1]) : DEFAULT_MAX_RATIO;
+
+        Random random = new Random(239);
+        for (int map = 0; map < maps; map++) {
+            Grid grid = buildMap(random);
+            for (int q = 0; q < QUERIES_PER_MAP; q++) {
+                GridCell start = randomWalkable(grid, random);
+                GridCell target = q % 2 == 0 ? nearBorderTarget(grid, start, random) : randomWalkable(grid, random);
+                if (target == null) continue;
+                compare(grid, start, target, q % 2 == 0, maxRatio);
+            }
+        }
+
+        System.out.println(String.format("[INFO] %d queries (%d near borders), worst ratio %.3f %s, over limit %d",
+                compared, nearBorder, worstRatio, worstQuery, overLimit));
+        if (invalid > 0 || overLimit > 0) {
+            System.err.println("[ERROR] hierarchical paths: " + invalid + " invalid or worse than A* near borders, "
+                    + overLimit + " over ratio " + maxRatio);
+            System.exit(1);
+        }
+        System.out.println("[OK] path cost gate passed");
+        System.exit(0);
+    }
+
+    private static Grid buildMap(Random random) {
+        Grid grid = new Grid((int) (SIZE * CELL_SIZE), (int) (SIZE * CELL_SIZE), CELL_SIZE);
+        grid.setSearchMode(Pathfinder.SearchMode.ASTAR);
+        grid.getClusterGraph();
+        for (int r = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                if (random.nextDouble() < BLOCKED_RATIO) {
+                    grid.setObstacle(new Obstacle((c + 0.5) * CELL_SIZE, (r + 0.5) * CELL_SIZE,
+                            CELL_SIZE - 2, 100));
+                }
+            }
+        }
+        return grid;
+    }
+
+    private static GridCell randomWalkable(Grid grid, Random random) {
+        while (true) {
+            int r = random.nextInt(SIZE);
+            int c = random.nextInt(SIZE);
+            if (grid.isWalkable(r, c)) return grid.getCellAtGridPos(r, c);
+        }
+    }
+
+    // Цель в нескольких ячейках от старта по другую сторону ближайшей границы кластера
+    private static GridCell nearBorderTarget(Grid grid, GridCell start, Random random) {
+        for (int attempt = 0; attempt < 20; attempt++) {
+            int r = start.row + random.nextInt(13) - 6;
+            int c = start.col + random.nextInt(13) - 6;
+            if (r / CLUSTER_SIZE == start.row / CLUSTER_SIZE && c / CLUSTER_SIZE == start.col / CLUSTER_SIZE) continue;
+            if (grid.isWalkable(r, c)) return grid.getCellAtGridPos(r, c);
+        }
+        return null;
+    }
+
+    private static void compare(Grid grid, GridCell start, GridCell target, boolean near, double maxRatio) {
+        List<GridCell> reference = Pathfinder.findPath(grid, start, target);
+        if (reference.isEmpty()) return;
+        List<GridCell> path = Pathfinder.findPathHierarchical(grid, start, target);
+
+        compared++;
+        if (near) nearBorder++;
+        String query = "(" + start.row + "," + start.col + ")->(" + target.row + "," + target.col + ")";
+        double referenceCost = cost(grid, start, reference);
+        double cost = cost(grid, start, path);
+        if (cost < 0 || path.get(path.size() - 1).row != target.row || path.get(path.size() - 1).col != target.col) {
+            System.err.println("[ERROR] broken path " + query);
+            invalid++;
+            return;
+        }
+
+        double ratio = cost / referenceCost;
+        if (ratio > worstRatio) {
+            worstRatio = ratio;
+            worstQuery = query;
+        }
+        if (near && ratio > 1 + EPSILON) {
+            System.err.println(String.format("[ERROR] near-border %s costs %.2f, A* %.2f", query, cost, referenceCost));
+            invalid++;
+        } else if (ratio > maxRatio) {
+            System.err.println(String.format("[ERROR] %s costs %.2f, A* %.2f", query, cost, referenceCost));
+            overLimit++;
+        }
+    }
+
+    // Стоимость пути без стартовой ячейки; -1 если путь рвётся или проходит через препятствие
+    private static double cost(Grid grid, GridCell start, List<GridCell> path) {
+        if (path.isEmpty()) return -1;
+        int cols = grid.getCols();
+        double cost = 0;
+        int previous = start.row * cols + start.col;
+        for (GridCell cell : path) {
+            int current = cell.row * cols + cell.col;
+            if (!grid.isWalkable(cell.row, cell.col)
+                    || Math.abs(cell.row - previous / cols) > 1 || Math.abs(cell.col - previous % cols) > 1) {
+                return -1;
+            }
+            cost += Pathfinder.stepCost(previous, current, cols);
+            previous = current;
+        }
+        return cost;
+    }
+}